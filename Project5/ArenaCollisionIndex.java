@@ -0,0 +1,500 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+
+/**
+ * This class is a CollisionIndex in the form of the same AVL tree with subtree totals as
+ * CollisionsData, but without node objects: a node is an index into parallel arrays (its
+ * collision, its sort key, its children as int indexes, its height, and its TOTALS subtree totals
+ * next to each other in one int array). The whole tree is a handful of arrays, so the garbage
+ * collector sees a constant number of objects besides the collisions, and a node takes 60 bytes
+ * instead of the 64 of a CollisionsData.Node. Reports compare the key array and only read the
+ * collisions they count. Slots of removed nodes are kept in a free list and reused.
+ *
+ * Nodes are numbered in the order they were added; compact() renumbers them in sorted order, so
+ * that an inorder traversal reads every array from front to back.
+ *
+ * @author Nanako Chung
+ */
+public class ArenaCollisionIndex implements CollisionIndex {
+
+	//index that stands for an empty subtree (and the end of the free list)
+	private static final int NIL=-1;
+
+	//initial number of slots
+	private static final int CAPACITY=16;
+
+	//nodes: collision, its sort key, children, height, and subtree totals (at index*TOTALS)
+	private Collision[] data;
+	private long[] keys;
+	private int[] left;
+	private int[] right;
+	private int[] height;
+	private int[] totals;
+
+	//root of tree, number of collisions, number of slots ever used, and first free slot
+	//(free slots are chained through left)
+	private int root;
+	private int size;
+	private int used;
+	private int free;
+
+	/**
+	 * This is a default constructor that creates an empty tree.
+	 */
+	public ArenaCollisionIndex() {
+		this.data=new Collision[CAPACITY];
+		this.keys=new long[CAPACITY];
+		this.left=new int[CAPACITY];
+		this.right=new int[CAPACITY];
+		this.height=new int[CAPACITY];
+		this.totals=new int[CAPACITY*CollisionsData.TOTALS];
+		this.root=NIL;
+		this.size=0;
+		this.used=0;
+		this.free=NIL;
+	}
+
+	@Override
+	public synchronized void add(Collision item) {
+		if (item==null) {
+			return;
+		}
+		size++;
+		if (root==NIL) {
+			root=allocate(item);
+			return;
+		}
+
+		//an AVL tree of height h has paths of at most h+1 nodes
+		int[] path=new int[height[root]+1];
+		int depth=0;
+		int node=root;
+		while (true) {
+			path[depth++]=node;
+
+			//equal collisions go to the right
+			if (data[node].compareTo(item)>0) {
+				if (left[node]==NIL) {
+					int slot=allocate(item);
+					left[node]=slot;
+					break;
+				}
+				node=left[node];
+			} else {
+				if (right[node]==NIL) {
+					int slot=allocate(item);
+					right[node]=slot;
+					break;
+				}
+				node=right[node];
+			}
+		}
+		retrace(path, depth);
+	}
+
+	@Override
+	public synchronized void addAll(Iterable<Collision> items) {
+		for (Collision item : items) {
+			add(item);
+		}
+	}
+
+	@Override
+	public synchronized boolean remove(Collision target) {
+		if (target==null || root==NIL) {
+			return false;
+		}
+
+		//goes down to the target, comparing once per node
+		int[] path=new int[height[root]+1];
+		int depth=0;
+		int node=root;
+		while (true) {
+			int cmp=target.compareTo(data[node]);
+			if (cmp==0) {
+				break;
+			}
+			path[depth++]=node;
+			node=cmp<0 ? left[node] : right[node];
+			if (node==NIL) {
+				return false;
+			}
+		}
+
+		//a node with two children takes the collision of the rightmost node of its left subtree
+		if (left[node]!=NIL && right[node]!=NIL) {
+			path[depth++]=node;
+			int predecessor=left[node];
+			while (right[predecessor]!=NIL) {
+				path[depth++]=predecessor;
+				predecessor=right[predecessor];
+			}
+			data[node]=data[predecessor];
+			keys[node]=keys[predecessor];
+			node=predecessor;
+		}
+
+		//the node has at most one child, which takes its place
+		int child=left[node]!=NIL ? left[node] : right[node];
+		if (depth==0) {
+			root=child;
+		} else if (left[path[depth-1]]==node) {
+			left[path[depth-1]]=child;
+		} else {
+			right[path[depth-1]]=child;
+		}
+		release(node);
+		size--;
+		retrace(path, depth);
+		return true;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		CollisionReport report=new CollisionReport(zip, dateBegin, dateEnd);
+		int zipCode=CollisionsData.queryZip(zip);
+		if (zipCode<0) {
+			return report;
+		}
+		long begin=Collision.sortKey(zipCode, dateBegin);
+		long end=Collision.sortKey(zipCode, dateEnd);
+
+		//finds the highest node that is within the range (the range splits below it)
+		int node=root;
+		while (node!=NIL) {
+			long key=keys[node];
+			if (key<begin) {
+				node=right[node];
+			} else if (key>end) {
+				node=left[node];
+			} else {
+				break;
+			}
+		}
+		if (node==NIL) {
+			return report;
+		}
+		report.add(data[node]);
+
+		//left boundary: a node within the range has its whole right subtree within the range
+		int low=left[node];
+		while (low!=NIL) {
+			if (keys[low]<begin) {
+				low=right[low];
+			} else {
+				report.add(data[low]);
+				addTotals(report, right[low]);
+				low=left[low];
+			}
+		}
+
+		//right boundary, the same way
+		int high=right[node];
+		while (high!=NIL) {
+			if (keys[high]>end) {
+				high=left[high];
+			} else {
+				report.add(data[high]);
+				addTotals(report, left[high]);
+				high=right[high];
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Returns an iterator over the collisions in ascending order. The tree should not be changed
+	 * while it is being iterated over.
+	 *
+	 * @return Iterator of Collision objects
+	 */
+	@Override
+	public synchronized Iterator<Collision> iterator() {
+		final int[] stack=new int[root==NIL ? 1 : height[root]+1];
+		int top=0;
+		for (int node=root; node!=NIL; node=left[node]) {
+			stack[top++]=node;
+		}
+		final int start=top;
+		return new Iterator<Collision>() {
+
+			//nodes whose left subtree was visited, but not the node itself
+			private int top=start;
+
+			@Override
+			public boolean hasNext() {
+				return top>0;
+			}
+
+			@Override
+			public Collision next() {
+				if (top==0) {
+					throw new NoSuchElementException();
+				}
+				int node=stack[--top];
+				for (int child=right[node]; child!=NIL; child=left[child]) {
+					stack[top++]=child;
+				}
+				return data[node];
+			}
+		};
+	}
+
+	/**
+	 * Renumbers the nodes in sorted order and shrinks the arrays to the number of collisions
+	 * (the free list is dropped). Afterwards an inorder traversal reads the arrays sequentially.
+	 */
+	public synchronized void compact() {
+		int capacity=Math.max(size, CAPACITY);
+
+		//new index of every used slot, in inorder
+		int[] index=new int[used];
+		int[] stack=new int[root==NIL ? 1 : height[root]+1];
+		int top=0;
+		int count=0;
+		int node=root;
+		while (node!=NIL || top>0) {
+			while (node!=NIL) {
+				stack[top++]=node;
+				node=left[node];
+			}
+			node=stack[--top];
+			index[node]=count++;
+			node=right[node];
+		}
+
+		//copies every node to its new slot
+		Collision[] newData=new Collision[capacity];
+		long[] newKeys=new long[capacity];
+		int[] newLeft=new int[capacity];
+		int[] newRight=new int[capacity];
+		int[] newHeight=new int[capacity];
+		int[] newTotals=new int[capacity*CollisionsData.TOTALS];
+		for (int slot=0; slot<used; slot++) {
+			if (data[slot]==null) {
+				continue;
+			}
+			int at=index[slot];
+			newData[at]=data[slot];
+			newKeys[at]=keys[slot];
+			newLeft[at]=left[slot]==NIL ? NIL : index[left[slot]];
+			newRight[at]=right[slot]==NIL ? NIL : index[right[slot]];
+			newHeight[at]=height[slot];
+			System.arraycopy(totals, slot*CollisionsData.TOTALS, newTotals, at*CollisionsData.TOTALS, CollisionsData.TOTALS);
+		}
+		root=root==NIL ? NIL : index[root];
+		data=newData;
+		keys=newKeys;
+		left=newLeft;
+		right=newRight;
+		height=newHeight;
+		totals=newTotals;
+		used=size;
+		free=NIL;
+	}
+
+	/**
+	 * Stores a collision in a free slot (growing the arrays by half if there is none)
+	 *
+	 * @param Collision item
+	 * @return index of the new node (a leaf)
+	 */
+	private int allocate(Collision item) {
+		int slot;
+		if (free!=NIL) {
+			slot=free;
+			free=left[slot];
+		} else {
+			if (used==data.length) {
+				int capacity=data.length+(data.length>>1);
+				data=Arrays.copyOf(data, capacity);
+				keys=Arrays.copyOf(keys, capacity);
+				left=Arrays.copyOf(left, capacity);
+				right=Arrays.copyOf(right, capacity);
+				height=Arrays.copyOf(height, capacity);
+				totals=Arrays.copyOf(totals, capacity*CollisionsData.TOTALS);
+			}
+			slot=used++;
+		}
+		data[slot]=item;
+		keys[slot]=item.getSortKey();
+		left[slot]=NIL;
+		right[slot]=NIL;
+		update(slot);
+		return slot;
+	}
+
+	/**
+	 * Puts the slot of a removed node on the free list
+	 *
+	 * @param int index of the node
+	 */
+	private void release(int slot) {
+		data[slot]=null;
+		left[slot]=free;
+		free=slot;
+	}
+
+	/**
+	 * Updates the nodes of a path after a node below the path was added or removed, from the
+	 * bottom up. Nodes are rebalanced until a subtree's height did not change; above that only
+	 * the totals are updated.
+	 *
+	 * @param int[] nodes from the root down to the parent of the added or removed node
+	 * @param int number of nodes in the path
+	 */
+	private void retrace(int[] path, int depth) {
+		int i=depth-1;
+		while (i>=0) {
+			int node=path[i];
+			int old=height[node];
+			int balanced=balance(node);
+
+			//a rotation replaces the node by another one in its parent
+			if (balanced!=node) {
+				if (i==0) {
+					root=balanced;
+				} else if (left[path[i-1]]==node) {
+					left[path[i-1]]=balanced;
+				} else {
+					right[path[i-1]]=balanced;
+				}
+			}
+			i--;
+			if (height[balanced]==old) {
+				break;
+			}
+		}
+		for (; i>=0; i--) {
+			update(path[i]);
+		}
+	}
+
+	/**
+	 * Updates the height and totals of a node and rotates it if it is unbalanced
+	 *
+	 * @param int node
+	 * @return balanced node
+	 */
+	private int balance(int node) {
+		update(node);
+		int factor=heightOf(right[node])-heightOf(left[node]);
+		if (factor<-1) {
+			if (heightOf(left[left[node]])<heightOf(right[left[node]])) {
+				left[node]=rotateLeft(left[node]);
+			}
+			return rotateRight(node);
+		}
+		if (factor>1) {
+			if (heightOf(right[right[node]])<heightOf(left[right[node]])) {
+				right[node]=rotateRight(right[node]);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Rotates a node down to the right (its left child takes its place)
+	 *
+	 * @param int node
+	 * @return new root of the subtree
+	 */
+	private int rotateRight(int node) {
+		int child=left[node];
+		left[node]=right[child];
+		right[child]=node;
+		update(node);
+		update(child);
+		return child;
+	}
+
+	/**
+	 * Rotates a node down to the left (its right child takes its place)
+	 *
+	 * @param int node
+	 * @return new root of the subtree
+	 */
+	private int rotateLeft(int node) {
+		int child=right[node];
+		right[node]=left[child];
+		left[child]=node;
+		update(node);
+		update(child);
+		return child;
+	}
+
+	/**
+	 * Sets the height and subtree totals of a node from its collision and its children
+	 *
+	 * @param int node
+	 */
+	private void update(int node) {
+		int l=left[node];
+		int r=right[node];
+		height[node]=1+Math.max(heightOf(l), heightOf(r));
+
+		Collision c=data[node];
+		int at=node*CollisionsData.TOTALS;
+		totals[at+CollisionsData.COUNT]=1;
+		totals[at+CollisionsData.PERSONS_KILLED]=c.getPersonsKilled();
+		totals[at+CollisionsData.PEDESTRIANS_KILLED]=c.getPedestriansKilled();
+		totals[at+CollisionsData.CYCLISTS_KILLED]=c.getCyclistsKilled();
+		totals[at+CollisionsData.MOTORISTS_KILLED]=c.getMotoristsKilled();
+		totals[at+CollisionsData.PERSONS_INJURED]=c.getPersonsInjured();
+		totals[at+CollisionsData.PEDESTRIANS_INJURED]=c.getPedestriansInjured();
+		totals[at+CollisionsData.CYCLISTS_INJURED]=c.getCyclistsInjured();
+		totals[at+CollisionsData.MOTORISTS_INJURED]=c.getMotoristsInjured();
+		addChildTotals(at, l);
+		addChildTotals(at, r);
+	}
+
+	/**
+	 * Adds the subtree totals of a child to those of its parent
+	 *
+	 * @param int index of the parent's totals
+	 * @param int child
+	 */
+	private void addChildTotals(int at, int child) {
+		if (child!=NIL) {
+			int from=child*CollisionsData.TOTALS;
+			for (int k=0; k<CollisionsData.TOTALS; k++) {
+				totals[at+k]+=totals[from+k];
+			}
+		}
+	}
+
+	/**
+	 * Adds the subtree totals of a node to a report (nothing is added for an empty subtree)
+	 *
+	 * @param CollisionReport report
+	 * @param int node
+	 */
+	private void addTotals(CollisionReport report, int node) {
+		if (node!=NIL) {
+			int at=node*CollisionsData.TOTALS;
+			report.add(totals[at+CollisionsData.COUNT], totals[at+CollisionsData.PERSONS_KILLED],
+					totals[at+CollisionsData.PEDESTRIANS_KILLED], totals[at+CollisionsData.CYCLISTS_KILLED],
+					totals[at+CollisionsData.MOTORISTS_KILLED], totals[at+CollisionsData.PERSONS_INJURED],
+					totals[at+CollisionsData.PEDESTRIANS_INJURED], totals[at+CollisionsData.CYCLISTS_INJURED],
+					totals[at+CollisionsData.MOTORISTS_INJURED]);
+		}
+	}
+
+	/**
+	 * Returns the height of a subtree
+	 *
+	 * @param int node
+	 * @return height (-1 for an empty subtree)
+	 */
+	private int heightOf(int node) {
+		return node==NIL ? -1 : height[node];
+	}
+}
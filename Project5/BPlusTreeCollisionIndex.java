@@ -0,0 +1,461 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+
+/**
+ * This class is a CollisionIndex in the form of a B+-tree. Every page holds up to ORDER entries
+ * in arrays, so a search touches a few wide pages instead of one node per level of a binary
+ * tree, and the collisions are only kept in the leaves, which are linked in order. A report
+ * finds the first leaf of its range and then scans the sort keys of consecutive leaves, which
+ * are stored in long arrays next to the collisions.
+ *
+ * Pages are split when they are full and unlinked when they become empty, but pages that are
+ * only partly empty are not merged, so a tree that had many collisions removed can have sparse
+ * pages (it stays correct and never becomes deeper than it was).
+ *
+ * @author Nanako Chung
+ */
+public class BPlusTreeCollisionIndex implements CollisionIndex {
+
+	//maximum number of collisions in a leaf and of children of an inner page
+	static final int ORDER=64;
+
+	//root page, number of inner levels above the leaves, and first leaf
+	private Page root;
+	private int height;
+	private Leaf first;
+
+	//number of collisions
+	private int size;
+
+	/**
+	 * This is a default constructor that creates an empty tree (a single empty leaf).
+	 */
+	public BPlusTreeCollisionIndex() {
+		this.first=new Leaf();
+		this.root=first;
+		this.height=0;
+		this.size=0;
+	}
+
+	@Override
+	public synchronized void add(Collision item) {
+		if (item==null) {
+			return;
+		}
+
+		//goes down to the leaf after the last collision that is not greater than item
+		Inner[] path=new Inner[height];
+		int[] at=new int[height];
+		Page page=root;
+		for (int level=0; level<height; level++) {
+			Inner inner=(Inner) page;
+			path[level]=inner;
+			at[level]=upperBound(inner.separators, inner.size-1, item);
+			page=inner.children[at[level]];
+		}
+		Leaf leaf=(Leaf) page;
+		int pos=upperBound(leaf.items, leaf.size, item);
+		size++;
+		if (leaf.size<ORDER) {
+			leaf.insert(pos, item);
+			return;
+		}
+
+		//a full leaf gives its upper half to a new leaf
+		Leaf right=leaf.split();
+		if (pos<=leaf.size) {
+			leaf.insert(pos, item);
+		} else {
+			right.insert(pos-leaf.size, item);
+		}
+		Collision separator=right.items[0];
+		Page child=right;
+
+		//the new page is added to the parent, which may have to be split as well
+		for (int level=height-1; level>=0; level--) {
+			Inner inner=path[level];
+			int i=at[level];
+			if (inner.size<ORDER) {
+				inner.insert(i, separator, child);
+				return;
+			}
+			Collision up=inner.separators[ORDER/2-1];
+			Inner sibling=inner.split();
+			if (i<inner.size) {
+				inner.insert(i, separator, child);
+			} else {
+				sibling.insert(i-inner.size, separator, child);
+			}
+			separator=up;
+			child=sibling;
+		}
+
+		//the root was split, so the tree grows by one level
+		Inner newRoot=new Inner();
+		newRoot.children[0]=root;
+		newRoot.children[1]=child;
+		newRoot.separators[0]=separator;
+		newRoot.keys[0]=separator.getSortKey();
+		newRoot.size=2;
+		root=newRoot;
+		height++;
+	}
+
+	@Override
+	public synchronized void addAll(Iterable<Collision> items) {
+		for (Collision item : items) {
+			add(item);
+		}
+	}
+
+	@Override
+	public synchronized boolean remove(Collision target) {
+		if (target==null) {
+			return false;
+		}
+
+		//goes down to the leaf of the first collision that is not less than target
+		Inner[] path=new Inner[height];
+		int[] at=new int[height];
+		Page page=root;
+		for (int level=0; level<height; level++) {
+			Inner inner=(Inner) page;
+			path[level]=inner;
+			at[level]=lowerBound(inner.separators, inner.size-1, target);
+			page=inner.children[at[level]];
+		}
+		Leaf leaf=(Leaf) page;
+		int pos=lowerBound(leaf.items, leaf.size, target);
+
+		//all collisions of the leaf are less than target, so it can only be first in the next leaf
+		if (pos==leaf.size) {
+			leaf=nextLeaf(path, at);
+			pos=0;
+		}
+		if (leaf==null || pos==leaf.size || leaf.items[pos].compareTo(target)!=0) {
+			return false;
+		}
+		leaf.delete(pos);
+		size--;
+
+		//an empty page is unlinked from its parent (the root leaf is kept even if it is empty)
+		if (leaf.size==0 && height>0) {
+			if (leaf.previous!=null) {
+				leaf.previous.next=leaf.next;
+			} else {
+				first=leaf.next;
+			}
+			if (leaf.next!=null) {
+				leaf.next.previous=leaf.previous;
+			}
+			int level=height-1;
+			path[level].delete(at[level]);
+			while (path[level].size==0 && level>0) {
+				level--;
+				path[level].delete(at[level]);
+			}
+
+			//a root with a single child is replaced by that child
+			while (height>0 && ((Inner) root).size==1) {
+				root=((Inner) root).children[0];
+				height--;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		CollisionReport report=new CollisionReport(zip, dateBegin, dateEnd);
+		int zipCode=CollisionsData.queryZip(zip);
+		if (zipCode<0) {
+			return report;
+		}
+		long begin=Collision.sortKey(zipCode, dateBegin);
+		long end=Collision.sortKey(zipCode, dateEnd);
+
+		//goes down to the leaf of the first collision that is not before the range
+		Page page=root;
+		for (int level=0; level<height; level++) {
+			Inner inner=(Inner) page;
+			page=inner.children[lowerBound(inner.keys, inner.size-1, begin)];
+		}
+		Leaf leaf=(Leaf) page;
+		int pos=lowerBound(leaf.keys, leaf.size, begin);
+
+		//scans the leaves until the end of the range
+		while (leaf!=null) {
+			long[] keys=leaf.keys;
+			for (; pos<leaf.size; pos++) {
+				if (keys[pos]>end) {
+					return report;
+				}
+				report.add(leaf.items[pos]);
+			}
+			leaf=leaf.next;
+			pos=0;
+		}
+		return report;
+	}
+
+	/**
+	 * Returns an iterator over the collisions in ascending order (along the linked leaves). The
+	 * tree should not be changed while it is being iterated over.
+	 *
+	 * @return Iterator of Collision objects
+	 */
+	@Override
+	public Iterator<Collision> iterator() {
+		final Leaf start=first;
+		return new Iterator<Collision>() {
+			private Leaf leaf=start;
+			private int pos=0;
+
+			@Override
+			public boolean hasNext() {
+				while (leaf!=null && pos==leaf.size) {
+					leaf=leaf.next;
+					pos=0;
+				}
+				return leaf!=null;
+			}
+
+			@Override
+			public Collision next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return leaf.items[pos++];
+			}
+		};
+	}
+
+	/**
+	 * Moves a path from the root to a leaf on to the next leaf
+	 *
+	 * @param Inner[] inner pages from the root down
+	 * @param int[] index of the child taken in every inner page (updated)
+	 * @return next leaf, or null if the path ends at the last leaf
+	 */
+	private Leaf nextLeaf(Inner[] path, int[] at) {
+		int level=height-1;
+		while (level>=0 && at[level]==path[level].size-1) {
+			level--;
+		}
+		if (level<0) {
+			return null;
+		}
+		at[level]++;
+		Page page=path[level].children[at[level]];
+		for (level++; level<height; level++) {
+			path[level]=(Inner) page;
+			at[level]=0;
+			page=path[level].children[0];
+		}
+		return (Leaf) page;
+	}
+
+	/**
+	 * Finds the number of collisions in a sorted array that are less than item
+	 *
+	 * @param Collision[] sorted collisions
+	 * @param int number of collisions in the array
+	 * @param Collision item
+	 * @return index of the first collision that is not less than item
+	 */
+	private static int lowerBound(Collision[] items, int size, Collision item) {
+		int low=0;
+		int high=size;
+		while (low<high) {
+			int mid=(low+high)>>>1;
+			if (items[mid].compareTo(item)<0) {
+				low=mid+1;
+			} else {
+				high=mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the number of collisions in a sorted array that are not greater than item
+	 *
+	 * @param Collision[] sorted collisions
+	 * @param int number of collisions in the array
+	 * @param Collision item
+	 * @return index of the first collision that is greater than item
+	 */
+	private static int upperBound(Collision[] items, int size, Collision item) {
+		int low=0;
+		int high=size;
+		while (low<high) {
+			int mid=(low+high)>>>1;
+			if (items[mid].compareTo(item)<=0) {
+				low=mid+1;
+			} else {
+				high=mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the number of sort keys in a sorted array that are less than key
+	 *
+	 * @param long[] sorted sort keys
+	 * @param int number of keys in the array
+	 * @param long key
+	 * @return index of the first sort key that is not less than key
+	 */
+	static int lowerBound(long[] keys, int size, long key) {
+		int low=0;
+		int high=size;
+		while (low<high) {
+			int mid=(low+high)>>>1;
+			if (keys[mid]<key) {
+				low=mid+1;
+			} else {
+				high=mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * A page of the tree
+	 */
+	private abstract static class Page {
+
+		//number of collisions (leaf) or children (inner page)
+		int size;
+	}
+
+	/**
+	 * A leaf: up to ORDER collisions in ascending order, their sort keys, and the neighboring leaves
+	 */
+	private static class Leaf extends Page {
+		private final Collision[] items=new Collision[ORDER];
+		private final long[] keys=new long[ORDER];
+		private Leaf previous;
+		private Leaf next;
+
+		/**
+		 * Inserts a collision at a position (the leaf cannot be full)
+		 *
+		 * @param int position
+		 * @param Collision item
+		 */
+		private void insert(int pos, Collision item) {
+			System.arraycopy(items, pos, items, pos+1, size-pos);
+			System.arraycopy(keys, pos, keys, pos+1, size-pos);
+			items[pos]=item;
+			keys[pos]=item.getSortKey();
+			size++;
+		}
+
+		/**
+		 * Removes the collision at a position
+		 *
+		 * @param int position
+		 */
+		private void delete(int pos) {
+			size--;
+			System.arraycopy(items, pos+1, items, pos, size-pos);
+			System.arraycopy(keys, pos+1, keys, pos, size-pos);
+			items[size]=null;
+		}
+
+		/**
+		 * Moves the upper half of the collisions to a new leaf that follows this one
+		 *
+		 * @return new leaf
+		 */
+		private Leaf split() {
+			Leaf right=new Leaf();
+			int half=size/2;
+			right.size=size-half;
+			System.arraycopy(items, half, right.items, 0, right.size);
+			System.arraycopy(keys, half, right.keys, 0, right.size);
+			Arrays.fill(items, half, size, null);
+			size=half;
+			right.next=next;
+			right.previous=this;
+			if (next!=null) {
+				next.previous=right;
+			}
+			next=right;
+			return right;
+		}
+	}
+
+	/**
+	 * An inner page: up to ORDER children, and between every two children a separator that is
+	 * not less than any collision on its left and not greater than any collision on its right
+	 * (together with its sort key)
+	 */
+	private static class Inner extends Page {
+		private final Page[] children=new Page[ORDER];
+		private final Collision[] separators=new Collision[ORDER-1];
+		private final long[] keys=new long[ORDER-1];
+
+		/**
+		 * Inserts a child right after the child at a position (the page cannot be full)
+		 *
+		 * @param int position of the existing child
+		 * @param Collision separator between the existing child and the new one
+		 * @param Page new child
+		 */
+		private void insert(int pos, Collision separator, Page child) {
+			System.arraycopy(children, pos+1, children, pos+2, size-pos-1);
+			System.arraycopy(separators, pos, separators, pos+1, size-pos-1);
+			System.arraycopy(keys, pos, keys, pos+1, size-pos-1);
+			children[pos+1]=child;
+			separators[pos]=separator;
+			keys[pos]=separator.getSortKey();
+			size++;
+		}
+
+		/**
+		 * Removes the child at a position together with a separator next to it
+		 *
+		 * @param int position of the child
+		 */
+		private void delete(int pos) {
+			size--;
+			System.arraycopy(children, pos+1, children, pos, size-pos);
+			children[size]=null;
+			if (size>0) {
+				int separator=pos>0 ? pos-1 : 0;
+				System.arraycopy(separators, separator+1, separators, separator, size-1-separator);
+				System.arraycopy(keys, separator+1, keys, separator, size-1-separator);
+				separators[size-1]=null;
+			}
+		}
+
+		/**
+		 * Moves the upper half of the children to a new page. The separator between the two
+		 * halves is not kept in either page (the caller moves it up to the parent).
+		 *
+		 * @return new page
+		 */
+		private Inner split() {
+			Inner right=new Inner();
+			int half=size/2;
+			right.size=size-half;
+			System.arraycopy(children, half, right.children, 0, right.size);
+			System.arraycopy(separators, half, right.separators, 0, right.size-1);
+			System.arraycopy(keys, half, right.keys, 0, right.size-1);
+			Arrays.fill(children, half, size, null);
+			Arrays.fill(separators, half-1, size-1, null);
+			size=half;
+			return right;
+		}
+	}
+}
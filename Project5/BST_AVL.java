@@ -0,0 +1,264 @@
+package project5;
+
+/**
+ * The class provides a self-balancing (AVL) implementation of a binary search tree, built on
+ * the same Node type as BST_Recursive and using its height field. add and remove are iterative:
+ * they keep the nodes on the way down in a path array and rebalance them on the way back up, so
+ * that neither sorted input nor a large number of items can make the tree deeper than about
+ * 1.44 log n, and no operation recurses. All NavigableSet methods of BST_Recursive (lookups,
+ * rank and select, range views) are iterative as well, so they run in O(log n) on this tree.
+ *
+ * @author Nanako Chung
+ *
+ * @param <T> generic type of data that is stored in nodes of the tree; needs to
+ *            implement Comparable<T> interface
+ */
+public class BST_AVL<T extends Comparable<T>> extends BST_Recursive<T> {
+
+	/**
+	 * Default constructor that creates an empty tree.
+	 */
+	public BST_AVL() {
+		super();
+	}
+
+	/**
+	 * Constructor that builds a balanced tree out of items given in ascending order in O(n).
+	 * Null items and repeated items are ignored.
+	 *
+	 * @param sorted items in ascending order
+	 * @throws IllegalArgumentException if the items are not in ascending order
+	 */
+	public BST_AVL(T[] sorted) {
+		super(sorted);
+	}
+
+	/**
+	 * Constructor that builds a balanced tree out of items given in ascending order in O(n).
+	 * Null items and repeated items are ignored.
+	 *
+	 * @param sorted items in ascending order
+	 * @throws IllegalArgumentException if the items are not in ascending order
+	 */
+	public BST_AVL(Iterable<T> sorted) {
+		super(sorted);
+	}
+
+	/**
+	 * Add the given data item to the tree. If item is null, the tree does not
+	 * change. If item already exists, the tree does not change.
+	 *
+	 * @param item the new element to be added to the tree
+	 * @return true if the item was added, false if it is null or already in the tree
+	 */
+	@Override
+	public boolean add(T item) {
+		if (item == null)
+			return false;
+		if (root == null) {
+			root = new Node<T>(item);
+			numOfElements++;
+			modCount++;
+			return true;
+		}
+
+		// find the parent of the new node, remembering the path to it
+		Node<T>[] path = newPath();
+		int depth = 0;
+		Node<T> node = root;
+		while (true) {
+			int cmp = item.compareTo(node.data);
+			if (cmp == 0)
+				return false;
+			path[depth++] = node;
+			if (cmp < 0) {
+				if (node.left == null) {
+					node.left = new Node<T>(item);
+					break;
+				}
+				node = node.left;
+			} else {
+				if (node.right == null) {
+					node.right = new Node<T>(item);
+					break;
+				}
+				node = node.right;
+			}
+		}
+		numOfElements++;
+		modCount++;
+		retrace(path, depth);
+		return true;
+	}
+
+	/**
+	 * Remove the item from the tree. If item is null the tree remains unchanged. If
+	 * item is not found in the tree, the tree remains unchanged.
+	 *
+	 * @param target the item to be removed from this tree
+	 * @return true if the item was found and removed
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(Object target) {
+		if (target == null || root == null)
+			return false;
+		T item = (T) target;
+
+		// find the node to remove, remembering the path to it
+		Node<T>[] path = newPath();
+		int depth = 0;
+		Node<T> node = root;
+		while (true) {
+			int cmp = item.compareTo(node.data);
+			if (cmp == 0)
+				break;
+			path[depth++] = node;
+			node = cmp < 0 ? node.left : node.right;
+			if (node == null)
+				return false;
+		}
+
+		// a node with two children takes the data of the rightmost node of its left subtree,
+		// which is removed instead
+		if (node.left != null && node.right != null) {
+			path[depth++] = node;
+			Node<T> predecessor = node.left;
+			while (predecessor.right != null) {
+				path[depth++] = predecessor;
+				predecessor = predecessor.right;
+			}
+			node.data = predecessor.data;
+			node = predecessor;
+		}
+
+		// the node has at most one child, which takes its place
+		Node<T> child = node.left != null ? node.left : node.right;
+		if (depth == 0)
+			root = child;
+		else if (path[depth - 1].left == node)
+			path[depth - 1].left = child;
+		else
+			path[depth - 1].right = child;
+		numOfElements--;
+		modCount++;
+		retrace(path, depth);
+		return true;
+	}
+
+	/*
+	 * Creates an array that can hold the longest path from the root to a leaf (an AVL tree of
+	 * height h has paths of at most h+1 nodes).
+	 *
+	 * @return empty path
+	 */
+	@SuppressWarnings("unchecked")
+	private Node<T>[] newPath() {
+		return (Node<T>[]) new Node<?>[root.height + 1];
+	}
+
+	/*
+	 * Updates the nodes of a path after a node below the path was added or removed, from the
+	 * bottom up. Nodes are rebalanced until the height of a subtree did not change (the heights
+	 * above it cannot have changed either); above that only the subtree sizes are updated.
+	 *
+	 * @param path nodes from the root down to the parent of the added or removed node
+	 * @param depth number of nodes in the path
+	 */
+	private void retrace(Node<T>[] path, int depth) {
+		int i = depth - 1;
+		for (; i >= 0; i--) {
+			Node<T> node = path[i];
+			int height = node.height;
+			Node<T> balanced = balance(node);
+
+			// a rotation replaces the node by another one in its parent
+			if (balanced != node) {
+				if (i == 0)
+					root = balanced;
+				else if (path[i - 1].left == node)
+					path[i - 1].left = balanced;
+				else
+					path[i - 1].right = balanced;
+			}
+			if (balanced.height == height) {
+				i--;
+				break;
+			}
+		}
+		for (; i >= 0; i--)
+			path[i].size = 1 + sizeOf(path[i].left) + sizeOf(path[i].right);
+	}
+
+	/*
+	 * Updates the height of a node and rotates it if its subtrees differ in height by more than one.
+	 *
+	 * @param node the root of the subtree
+	 * @return the root of the balanced subtree
+	 */
+	private Node<T> balance(Node<T> node) {
+		updateHeight(node);
+		int factor = height(node.right) - height(node.left);
+		if (factor < -1) {
+			if (height(node.left.left) < height(node.left.right))
+				node.left = rotateLeft(node.left);
+			return rotateRight(node);
+		}
+		if (factor > 1) {
+			if (height(node.right.right) < height(node.right.left))
+				node.right = rotateRight(node.right);
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	/*
+	 * Rotates a node down to the right (its left child takes its place).
+	 *
+	 * @param node the root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private Node<T> rotateRight(Node<T> node) {
+		Node<T> child = node.left;
+		node.left = child.right;
+		child.right = node;
+		updateHeight(node);
+		updateHeight(child);
+		return child;
+	}
+
+	/*
+	 * Rotates a node down to the left (its right child takes its place).
+	 *
+	 * @param node the root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private Node<T> rotateLeft(Node<T> node) {
+		Node<T> child = node.right;
+		node.right = child.left;
+		child.left = node;
+		updateHeight(node);
+		updateHeight(child);
+		return child;
+	}
+
+	/*
+	 * Sets the height and subtree size of a node from those of its children.
+	 *
+	 * @param node the node
+	 */
+	private static <T extends Comparable<T>> void updateHeight(Node<T> node) {
+		node.height = 1 + Math.max(height(node.left), height(node.right));
+		node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+	}
+
+	/*
+	 * Returns the height of a subtree (-1 for an empty subtree, 0 for a single node).
+	 *
+	 * @param node the root of the subtree
+	 * @return height of the subtree
+	 */
+	private static <T extends Comparable<T>> int height(Node<T> node) {
+		return node == null ? -1 : node.height;
+	}
+}
@@ -0,0 +1,499 @@
+package project5;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The class provides a self-balancing (AVL) binary search tree like BST_AVL, but without node
+ * objects: a node is an index into parallel arrays that hold its data, the indexes of its
+ * children and its height. The whole tree is four arrays however many items it holds, so the
+ * garbage collector has no nodes to trace, and a node takes 16 bytes (a reference and three
+ * ints) instead of the 32 of a BST_Recursive Node. Slots of removed nodes are kept in a free
+ * list (chained through the left array) and reused by later adds.
+ *
+ * Nodes are numbered in the order they were added; compact() renumbers them in sorted order,
+ * so that a traversal in order reads the arrays from front to back.
+ * Null items are never stored: add, remove and contains ignore them.
+ *
+ * @author Nanako Chung
+ *
+ * @param <T> generic type of data that is stored in nodes of the tree; needs to
+ *            implement Comparable<T> interface
+ */
+public class BST_Arena<T extends Comparable<T>> extends AbstractSet<T> {
+
+	// index that stands for an empty subtree (and the end of the free list)
+	private static final int NIL = -1;
+	// initial number of slots
+	private static final int CAPACITY = 16;
+
+	// nodes: data, children and height
+	private Object[] data;
+	private int[] left;
+	private int[] right;
+	private int[] height;
+	// root of the tree
+	private int root;
+	// current number of nodes in the tree
+	private int numOfElements;
+	// number of slots ever used, and the first free slot
+	private int used;
+	private int free;
+	// number of changes to the tree, used by the iterators to detect concurrent changes
+	private int modCount;
+
+	/**
+	 * Default constructor that creates an empty tree.
+	 */
+	public BST_Arena() {
+		data = new Object[CAPACITY];
+		left = new int[CAPACITY];
+		right = new int[CAPACITY];
+		height = new int[CAPACITY];
+		root = NIL;
+		free = NIL;
+	}
+
+	/**
+	 * Add the given data item to the tree. If item is null, the tree does not
+	 * change. If item already exists, the tree does not change.
+	 *
+	 * @param item the new element to be added to the tree
+	 * @return true if the item was added, false if it is null or already in the tree
+	 */
+	@Override
+	public boolean add(T item) {
+		if (item == null)
+			return false;
+		if (root == NIL) {
+			root = allocate(item);
+			numOfElements++;
+			modCount++;
+			return true;
+		}
+
+		// find the parent of the new node, remembering the path to it
+		int[] path = new int[height[root] + 1];
+		int depth = 0;
+		int node = root;
+		while (true) {
+			int cmp = item.compareTo(dataOf(node));
+			if (cmp == 0)
+				return false;
+			path[depth++] = node;
+			if (cmp < 0) {
+				if (left[node] == NIL) {
+					int slot = allocate(item);
+					left[node] = slot;
+					break;
+				}
+				node = left[node];
+			} else {
+				if (right[node] == NIL) {
+					int slot = allocate(item);
+					right[node] = slot;
+					break;
+				}
+				node = right[node];
+			}
+		}
+		numOfElements++;
+		modCount++;
+		retrace(path, depth);
+		return true;
+	}
+
+	/**
+	 * Remove the item from the tree. If item is null the tree remains unchanged. If
+	 * item is not found in the tree, the tree remains unchanged.
+	 *
+	 * @param target the item to be removed from this tree
+	 * @return true if the item was found and removed
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(Object target) {
+		if (target == null || root == NIL)
+			return false;
+		T item = (T) target;
+
+		// find the node to remove, remembering the path to it
+		int[] path = new int[height[root] + 1];
+		int depth = 0;
+		int node = root;
+		while (true) {
+			int cmp = item.compareTo(dataOf(node));
+			if (cmp == 0)
+				break;
+			path[depth++] = node;
+			node = cmp < 0 ? left[node] : right[node];
+			if (node == NIL)
+				return false;
+		}
+
+		// a node with two children takes the data of the rightmost node of its left subtree,
+		// which is removed instead
+		if (left[node] != NIL && right[node] != NIL) {
+			path[depth++] = node;
+			int predecessor = left[node];
+			while (right[predecessor] != NIL) {
+				path[depth++] = predecessor;
+				predecessor = right[predecessor];
+			}
+			data[node] = data[predecessor];
+			node = predecessor;
+		}
+
+		// the node has at most one child, which takes its place
+		int child = left[node] != NIL ? left[node] : right[node];
+		if (depth == 0)
+			root = child;
+		else if (left[path[depth - 1]] == node)
+			left[path[depth - 1]] = child;
+		else
+			right[path[depth - 1]] = child;
+		release(node);
+		numOfElements--;
+		modCount++;
+		retrace(path, depth);
+		return true;
+	}
+
+	/**
+	 * Determines whether the given item is stored in this tree.
+	 *
+	 * @param item the item to look for
+	 * @return true if an equal item is stored in the tree, false otherwise (or if item is null)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object item) {
+		if (item == null)
+			return false;
+		T target = (T) item;
+		int node = root;
+		while (node != NIL) {
+			int cmp = target.compareTo(dataOf(node));
+			if (cmp == 0)
+				return true;
+			node = cmp < 0 ? left[node] : right[node];
+		}
+		return false;
+	}
+
+	/**
+	 * Determines the number of elements stored in this tree.
+	 *
+	 * @return number of elements in this tree
+	 */
+	@Override
+	public int size() {
+		return numOfElements;
+	}
+
+	/**
+	 * Removes all items from this tree (the arrays go back to their initial size).
+	 */
+	@Override
+	public void clear() {
+		data = new Object[CAPACITY];
+		left = new int[CAPACITY];
+		right = new int[CAPACITY];
+		height = new int[CAPACITY];
+		root = NIL;
+		numOfElements = 0;
+		used = 0;
+		free = NIL;
+		modCount++;
+	}
+
+	/**
+	 * Returns an iterator over the items of this tree in ascending order. The iterator throws
+	 * ConcurrentModificationException if the tree is changed other than through its remove.
+	 *
+	 * @return iterator over the items
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new TreeIterator();
+	}
+
+	/**
+	 * Renumbers the nodes in sorted order and shrinks the arrays to the number of items (the
+	 * free list is dropped). Afterwards a traversal in order reads the arrays sequentially.
+	 */
+	public void compact() {
+		int capacity = Math.max(numOfElements, CAPACITY);
+
+		// new index of every used slot, in order
+		int[] index = new int[used];
+		int[] stack = new int[root == NIL ? 1 : height[root] + 1];
+		int top = 0;
+		int count = 0;
+		int node = root;
+		while (node != NIL || top > 0) {
+			while (node != NIL) {
+				stack[top++] = node;
+				node = left[node];
+			}
+			node = stack[--top];
+			index[node] = count++;
+			node = right[node];
+		}
+
+		// copy every node to its new slot
+		Object[] newData = new Object[capacity];
+		int[] newLeft = new int[capacity];
+		int[] newRight = new int[capacity];
+		int[] newHeight = new int[capacity];
+		for (int slot = 0; slot < used; slot++) {
+			if (data[slot] == null)
+				continue;
+			int at = index[slot];
+			newData[at] = data[slot];
+			newLeft[at] = left[slot] == NIL ? NIL : index[left[slot]];
+			newRight[at] = right[slot] == NIL ? NIL : index[right[slot]];
+			newHeight[at] = height[slot];
+		}
+		root = root == NIL ? NIL : index[root];
+		data = newData;
+		left = newLeft;
+		right = newRight;
+		height = newHeight;
+		used = numOfElements;
+		free = NIL;
+		modCount++;
+	}
+
+	/**
+	 * Returns a string representation of this tree using an inorder traversal
+	 * (the same as BST_Recursive.toString).
+	 *
+	 * @return string representation of this tree
+	 */
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		for (T item : this)
+			s.append(item.toString()).append("  ");
+		return s.toString();
+	}
+
+	/*
+	 * Stores an item in a free slot (growing the arrays by half if there is none).
+	 *
+	 * @param item the item
+	 * @return index of the new node (a leaf)
+	 */
+	private int allocate(T item) {
+		int slot;
+		if (free != NIL) {
+			slot = free;
+			free = left[slot];
+		} else {
+			if (used == data.length) {
+				int capacity = data.length + (data.length >> 1);
+				data = Arrays.copyOf(data, capacity);
+				left = Arrays.copyOf(left, capacity);
+				right = Arrays.copyOf(right, capacity);
+				height = Arrays.copyOf(height, capacity);
+			}
+			slot = used++;
+		}
+		data[slot] = item;
+		left[slot] = NIL;
+		right[slot] = NIL;
+		height[slot] = 0;
+		return slot;
+	}
+
+	/*
+	 * Puts the slot of a removed node on the free list.
+	 *
+	 * @param slot index of the node
+	 */
+	private void release(int slot) {
+		data[slot] = null;
+		left[slot] = free;
+		free = slot;
+	}
+
+	/*
+	 * Updates the nodes of a path after a node below the path was added or removed, from the
+	 * bottom up, until the height of a subtree did not change (the heights above it cannot have
+	 * changed either).
+	 *
+	 * @param path nodes from the root down to the parent of the added or removed node
+	 * @param depth number of nodes in the path
+	 */
+	private void retrace(int[] path, int depth) {
+		for (int i = depth - 1; i >= 0; i--) {
+			int node = path[i];
+			int old = height[node];
+			int balanced = balance(node);
+
+			// a rotation replaces the node by another one in its parent
+			if (balanced != node) {
+				if (i == 0)
+					root = balanced;
+				else if (left[path[i - 1]] == node)
+					left[path[i - 1]] = balanced;
+				else
+					right[path[i - 1]] = balanced;
+			}
+			if (height[balanced] == old)
+				break;
+		}
+	}
+
+	/*
+	 * Updates the height of a node and rotates it if its subtrees differ in height by more than one.
+	 *
+	 * @param node the root of the subtree
+	 * @return the root of the balanced subtree
+	 */
+	private int balance(int node) {
+		updateHeight(node);
+		int factor = heightOf(right[node]) - heightOf(left[node]);
+		if (factor < -1) {
+			if (heightOf(left[left[node]]) < heightOf(right[left[node]]))
+				left[node] = rotateLeft(left[node]);
+			return rotateRight(node);
+		}
+		if (factor > 1) {
+			if (heightOf(right[right[node]]) < heightOf(left[right[node]]))
+				right[node] = rotateRight(right[node]);
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	/*
+	 * Rotates a node down to the right (its left child takes its place).
+	 *
+	 * @param node the root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private int rotateRight(int node) {
+		int child = left[node];
+		left[node] = right[child];
+		right[child] = node;
+		updateHeight(node);
+		updateHeight(child);
+		return child;
+	}
+
+	/*
+	 * Rotates a node down to the left (its right child takes its place).
+	 *
+	 * @param node the root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private int rotateLeft(int node) {
+		int child = right[node];
+		right[node] = left[child];
+		left[child] = node;
+		updateHeight(node);
+		updateHeight(child);
+		return child;
+	}
+
+	/*
+	 * Sets the height of a node from those of its children.
+	 *
+	 * @param node the node
+	 */
+	private void updateHeight(int node) {
+		height[node] = 1 + Math.max(heightOf(left[node]), heightOf(right[node]));
+	}
+
+	/*
+	 * Returns the height of a subtree (-1 for an empty subtree, 0 for a single node).
+	 *
+	 * @param node the root of the subtree
+	 * @return height of the subtree
+	 */
+	private int heightOf(int node) {
+		return node == NIL ? -1 : height[node];
+	}
+
+	/*
+	 * Returns the data of a node.
+	 *
+	 * @param node the node
+	 * @return its data
+	 */
+	@SuppressWarnings("unchecked")
+	private T dataOf(int node) {
+		return (T) data[node];
+	}
+
+	/**
+	 * Iterator that walks the tree in order with a stack of node indexes (the nodes whose left
+	 * subtree was visited, but not the node itself).
+	 */
+	private class TreeIterator implements Iterator<T> {
+		private int[] stack;
+		private int top;
+		private T lastReturned;
+		private int expectedModCount = modCount;
+
+		private TreeIterator() {
+			seek(null);
+		}
+
+		/*
+		 * Fills the stack with the path to the first item greater than the given bound.
+		 *
+		 * @param bound the bound, or null to start at the first item
+		 */
+		private void seek(T bound) {
+			stack = new int[root == NIL ? 1 : height[root] + 1];
+			top = 0;
+			int node = root;
+			while (node != NIL) {
+				if (bound != null && dataOf(node).compareTo(bound) <= 0)
+					node = right[node];
+				else {
+					stack[top++] = node;
+					node = left[node];
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return top > 0;
+		}
+
+		@Override
+		public T next() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (top == 0)
+				throw new NoSuchElementException();
+			int node = stack[--top];
+			for (int child = right[node]; child != NIL; child = left[child])
+				stack[top++] = child;
+			lastReturned = dataOf(node);
+			return lastReturned;
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturned == null)
+				throw new IllegalStateException();
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+
+			// removing a node can move items between nodes, so the path is found again
+			BST_Arena.this.remove(lastReturned);
+			expectedModCount = modCount;
+			seek(lastReturned);
+			lastReturned = null;
+		}
+	}
+}
@@ -0,0 +1,329 @@
+package project5;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import project5.BST_Recursive.Node;
+
+/**
+ * The class provides a thread-safe binary search tree (an ordered set) built on the Node type
+ * of BST_Recursive. Every node has its own lock, and every operation walks down the tree with
+ * hand-over-hand locking: it locks a child before it unlocks the parent, so it never holds more
+ * than two locks on its path (remove holds one more while it finds a predecessor). Threads that
+ * work in different subtrees therefore add, remove and search in parallel, and every method
+ * returns its result from the call itself.
+ *
+ * Like BST_Recursive the tree is not balanced. Iterators are weakly consistent: they never throw
+ * ConcurrentModificationException, and every step finds the next greater item in the current
+ * tree, so items added or removed during the iteration may or may not be seen.
+ *
+ * @author Nanako Chung
+ *
+ * @param <T> generic type of data that is stored in nodes of the tree; needs to
+ *            implement Comparable<T> interface
+ */
+public class BST_Concurrent<T extends Comparable<T>> extends AbstractSet<T> {
+
+	// node without data whose right child is the root of the tree (so that the root can be
+	// replaced under a lock, like any other child)
+	private final LockedNode<T> head;
+	// current number of nodes in the tree
+	private final LongAdder numOfElements;
+
+	/**
+	 * Default constructor that creates an empty tree.
+	 */
+	public BST_Concurrent() {
+		head = new LockedNode<T>(null);
+		numOfElements = new LongAdder();
+	}
+
+	/**
+	 * Add the given data item to the tree. If item is null, the tree does not
+	 * change. If item already exists, the tree does not change.
+	 *
+	 * @param item the new element to be added to the tree
+	 * @return true if the item was added, false if it is null or already in the tree
+	 */
+	@Override
+	public boolean add(T item) {
+		if (item == null)
+			return false;
+		LockedNode<T> node = head;
+		node.lock.lock();
+		try {
+			while (true) {
+				int cmp = node == head ? 1 : item.compareTo(node.data);
+				if (cmp == 0)
+					return false;
+
+				// the new node is linked while its parent is locked
+				Node<T> child = cmp < 0 ? node.left : node.right;
+				if (child == null) {
+					if (cmp < 0)
+						node.left = new LockedNode<T>(item);
+					else
+						node.right = new LockedNode<T>(item);
+					numOfElements.increment();
+					return true;
+				}
+				node = lockChild(node, child);
+			}
+		} finally {
+			node.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove the item from the tree. If item is null the tree remains unchanged. If
+	 * item is not found in the tree, the tree remains unchanged.
+	 *
+	 * @param target the item to be removed from this tree
+	 * @return true if the item was found and removed
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(Object target) {
+		if (target == null)
+			return false;
+		T item = (T) target;
+
+		// finds the node with its parent locked (the parent's link to it may have to change)
+		LockedNode<T> parent = head;
+		LockedNode<T> node = null;
+		boolean twoChildren = false;
+		parent.lock.lock();
+		try {
+			Node<T> child = head.right;
+			while (true) {
+				if (child == null)
+					return false;
+				node = (LockedNode<T>) child;
+				node.lock.lock();
+				int cmp = item.compareTo(node.data);
+				if (cmp == 0)
+					break;
+				parent.lock.unlock();
+				parent = node;
+				node = null;
+				child = cmp < 0 ? parent.left : parent.right;
+			}
+
+			// a node with at most one child is replaced by that child
+			twoChildren = node.left != null && node.right != null;
+			if (!twoChildren) {
+				Node<T> replacement = node.left != null ? node.left : node.right;
+				if (parent.left == node)
+					parent.left = replacement;
+				else
+					parent.right = replacement;
+				numOfElements.decrement();
+				return true;
+			}
+		} finally {
+			if (node != null && !twoChildren)
+				node.lock.unlock();
+			parent.lock.unlock();
+		}
+
+		// a node with two children stays locked and takes the data of the rightmost node of its
+		// left subtree, which is removed instead (the parent is not needed any more)
+		try {
+			removePredecessor(node);
+		} finally {
+			node.lock.unlock();
+		}
+		numOfElements.decrement();
+		return true;
+	}
+
+	/**
+	 * Determines whether the given item is stored in this tree.
+	 *
+	 * @param item the item to look for
+	 * @return true if an equal item is stored in the tree, false otherwise (or if item is null)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object item) {
+		if (item == null)
+			return false;
+		T target = (T) item;
+		LockedNode<T> node = head;
+		node.lock.lock();
+		try {
+			while (true) {
+				int cmp = node == head ? 1 : target.compareTo(node.data);
+				if (cmp == 0)
+					return true;
+				Node<T> child = cmp < 0 ? node.left : node.right;
+				if (child == null)
+					return false;
+				node = lockChild(node, child);
+			}
+		} finally {
+			node.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the least item in this tree that is greater than or equal to the given item.
+	 *
+	 * @param item the item
+	 * @return the least item not less than item, or null if there is none
+	 */
+	public T ceiling(T item) {
+		return search(item, true);
+	}
+
+	/**
+	 * Returns the least item in this tree that is strictly greater than the given item.
+	 *
+	 * @param item the item
+	 * @return the least item greater than item, or null if there is none
+	 */
+	public T higher(T item) {
+		return search(item, false);
+	}
+
+	/**
+	 * Determines the number of elements stored in this tree. While other threads change the
+	 * tree the result is only an estimate.
+	 *
+	 * @return number of elements in this tree
+	 */
+	@Override
+	public int size() {
+		return (int) numOfElements.sum();
+	}
+
+	/**
+	 * Returns a weakly consistent iterator over the items of this tree in ascending order. Every
+	 * call of next searches the tree for the item after the previous one (O(height)), and remove
+	 * removes the previous item from the tree.
+	 *
+	 * @return iterator over the items
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private T next = search(null, true);
+			private T lastReturned;
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public T next() {
+				if (next == null)
+					throw new NoSuchElementException();
+				lastReturned = next;
+				next = search(lastReturned, false);
+				return lastReturned;
+			}
+
+			@Override
+			public void remove() {
+				if (lastReturned == null)
+					throw new IllegalStateException();
+				BST_Concurrent.this.remove(lastReturned);
+				lastReturned = null;
+			}
+		};
+	}
+
+	/*
+	 * Finds the least item that is greater than (or, if inclusive, equal to) the given item.
+	 *
+	 * @param item the item, or null to find the least item of the tree
+	 * @param inclusive whether an item equal to item is accepted
+	 * @return the item, or null if there is none
+	 */
+	private T search(T item, boolean inclusive) {
+		T best = null;
+		LockedNode<T> node = head;
+		node.lock.lock();
+		try {
+			Node<T> child = head.right;
+			while (child != null) {
+				node = lockChild(node, child);
+				int cmp = item == null ? -1 : item.compareTo(node.data);
+				if (cmp == 0 && inclusive)
+					return node.data;
+				if (cmp < 0) {
+					best = node.data;
+					child = node.left;
+				} else
+					child = node.right;
+			}
+			return best;
+		} finally {
+			node.lock.unlock();
+		}
+	}
+
+	/*
+	 * Moves the data of the rightmost node of the left subtree of a locked node into that node
+	 * and unlinks the rightmost node. The spine is walked with hand-over-hand locking below the
+	 * locked node, so an item that another thread adds at the end of the spine in the meantime
+	 * is found as well.
+	 *
+	 * @param node a locked node with two children
+	 */
+	private void removePredecessor(LockedNode<T> node) {
+		LockedNode<T> parent = node;
+		LockedNode<T> predecessor = (LockedNode<T>) node.left;
+		predecessor.lock.lock();
+		try {
+			while (predecessor.right != null) {
+				LockedNode<T> next = (LockedNode<T>) predecessor.right;
+				next.lock.lock();
+				if (parent != node)
+					parent.lock.unlock();
+				parent = predecessor;
+				predecessor = next;
+			}
+			node.data = predecessor.data;
+			if (parent == node)
+				parent.left = predecessor.left;
+			else
+				parent.right = predecessor.left;
+		} finally {
+			predecessor.lock.unlock();
+			if (parent != node)
+				parent.lock.unlock();
+		}
+	}
+
+	/*
+	 * Locks a child of a locked node and then unlocks the node (one step of hand-over-hand locking).
+	 *
+	 * @param node the locked node
+	 * @param child a child of the node
+	 * @return the child, which is now locked
+	 */
+	private static <T extends Comparable<T>> LockedNode<T> lockChild(LockedNode<T> node, Node<T> child) {
+		LockedNode<T> next = (LockedNode<T>) child;
+		next.lock.lock();
+		node.lock.unlock();
+		return next;
+	}
+
+	/**
+	 * Node with a lock that protects its data and its links to its children.
+	 *
+	 * @param <T> a reference type that implements Comparable<T> interface
+	 */
+	private static class LockedNode<T extends Comparable<T>> extends Node<T> {
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private LockedNode(T data) {
+			super(data);
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package project5;
+
+//import the junit package
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * This class is responsible for testing the remove method of the BST_Concurrent class (and of
+ * BST_Recursive, whose result no longer comes from a shared field) using junit testing, with
+ * several threads removing at the same time.
+ *
+ * @author Nanako Chung
+ */
+@SuppressWarnings("unused")
+public class BST_ConcurrentTest {
+
+	//number of threads that work on the same tree at once
+	private static final int THREADS=4;
+
+	/**
+	 * Runs a task on several threads that start at the same time and waits until all are done
+	 *
+	 * @param IntConsumer task that receives the number of its thread
+	 * @return List of the errors thrown by the threads (empty if there were none)
+	 * @throws InterruptedException if the test is interrupted while it waits
+	 */
+	private static List<Throwable> runThreads(IntConsumer task) throws InterruptedException {
+		final List<Throwable> errors=Collections.synchronizedList(new ArrayList<Throwable>());
+		final CountDownLatch start=new CountDownLatch(1);
+		Thread[] threads=new Thread[THREADS];
+		for (int t=0; t<THREADS; t++) {
+			final int thread=t;
+			threads[t]=new Thread(() -> {
+				try {
+					start.await();
+					task.accept(thread);
+				} catch (Throwable ex) {
+					errors.add(ex);
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return errors;
+	}
+
+	/**
+	 * Creates a tree with the items 0 to size-1, added in random order (so that the tree is not a list)
+	 *
+	 * @param int number of items
+	 * @return BST_Concurrent object
+	 */
+	private static BST_Concurrent<Integer> shuffledTree(int size) {
+		ArrayList<Integer> items=new ArrayList<Integer>();
+		for (int i=0; i<size; i++) {
+			items.add(i);
+		}
+		Collections.shuffle(items, new Random(23));
+		BST_Concurrent<Integer> tree=new BST_Concurrent<Integer>();
+		for (Integer item : items) {
+			tree.add(item);
+		}
+		return tree;
+	}
+
+	//tests remove with null, on an empty tree, and with items that are not in the tree
+	@Test
+	public void testRemove_1() {
+		try {
+
+			//nothing is removed, and a removed item is not found again
+			BST_Concurrent<Integer> tree=new BST_Concurrent<Integer>();
+			assertFalse("Nothing is removed from an empty tree", tree.remove(1));
+			tree=shuffledTree(100);
+			assertFalse("Null is not removed", tree.remove(null));
+			assertFalse("An item that is not in the tree is not removed", tree.remove(100));
+			assertTrue("An item in the tree is removed", tree.remove(50));
+			assertFalse("An item is not removed twice", tree.remove(50));
+			assertFalse("The removed item is not in the tree", tree.contains(50));
+			assertEquals("One item less", 99, tree.size());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for remove");
+		}
+	}
+
+	//tests threads that remove different items at the same time
+	@Test
+	public void testRemove_2() {
+		try {
+
+			//every thread removes the items with its own remainder
+			final BST_Concurrent<Integer> tree=shuffledTree(20000);
+			final AtomicInteger failed=new AtomicInteger();
+			List<Throwable> errors=runThreads(thread -> {
+				for (int i=thread; i<20000; i+=THREADS) {
+					if (!tree.remove(i)) {
+						failed.incrementAndGet();
+					}
+				}
+			});
+			assertTrue("No thread failed "+errors, errors.isEmpty());
+			assertEquals("Every remove found its item", 0, failed.get());
+			assertEquals("The tree is empty", 0, tree.size());
+			assertFalse("The iterator finds no items", tree.iterator().hasNext());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for concurrent removes");
+		}
+	}
+
+	//tests threads that remove the same items at the same time
+	@Test
+	public void testRemove_3() {
+		try {
+
+			//every item is removed by exactly one of the threads
+			final BST_Concurrent<Integer> tree=shuffledTree(20000);
+			final AtomicInteger removed=new AtomicInteger();
+			List<Throwable> errors=runThreads(thread -> {
+				for (int i=0; i<20000; i++) {
+					if (tree.remove(thread%2==0 ? i : 19999-i)) {
+						removed.incrementAndGet();
+					}
+				}
+			});
+			assertTrue("No thread failed "+errors, errors.isEmpty());
+			assertEquals("Every item was removed once", 20000, removed.get());
+			assertEquals("The tree is empty", 0, tree.size());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for removing the same items");
+		}
+	}
+
+	//tests threads that add and remove at the same time
+	@Test
+	public void testRemove_4() {
+		try {
+
+			//half of the threads remove the even items, the others add odd items
+			final BST_Concurrent<Integer> tree=new BST_Concurrent<Integer>();
+			ArrayList<Integer> evens=new ArrayList<Integer>();
+			for (int i=0; i<20000; i+=2) {
+				evens.add(i);
+			}
+			Collections.shuffle(evens, new Random(4));
+			for (Integer item : evens) {
+				tree.add(item);
+			}
+			final AtomicInteger failed=new AtomicInteger();
+			List<Throwable> errors=runThreads(thread -> {
+				Random random=new Random(thread);
+				for (int i=thread/2; i<10000; i+=THREADS/2) {
+					int item=thread%2==0 ? 2*i : 2*random.nextInt(10000)+1;
+					if (thread%2==0 && !tree.remove(item)) {
+						failed.incrementAndGet();
+					} else if (thread%2==1) {
+						tree.add(item);
+					}
+				}
+			});
+			assertTrue("No thread failed "+errors, errors.isEmpty());
+			assertEquals("Every even item was found and removed", 0, failed.get());
+
+			//only odd items are left, in ascending order, and size counts them
+			int count=0;
+			int previous=-1;
+			for (Integer item : tree) {
+				assertEquals("Only odd items are left", 1, item%2);
+				assertTrue("The items are in ascending order", item>previous);
+				previous=item;
+				count++;
+			}
+			assertEquals("size counts the items that are left", count, tree.size());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for adding and removing at the same time");
+		}
+	}
+
+	//tests the result of BST_Recursive.remove when several threads remove through a synchronized set
+	@Test
+	public void testRecursiveRemove_1() {
+		try {
+
+			//every item is reported as removed by exactly one of the threads
+			BST_Recursive<Integer> recursive=new BST_Recursive<Integer>();
+			ArrayList<Integer> items=new ArrayList<Integer>();
+			for (int i=0; i<5000; i++) {
+				items.add(i);
+			}
+			Collections.shuffle(items, new Random(5));
+			recursive.addAll(items);
+			final Set<Integer> tree=Collections.synchronizedSet(recursive);
+			final AtomicInteger removed=new AtomicInteger();
+			List<Throwable> errors=runThreads(thread -> {
+				for (int i=0; i<5000; i++) {
+					if (tree.remove(i)) {
+						removed.incrementAndGet();
+					}
+					tree.remove(-1);
+				}
+			});
+			assertTrue("No thread failed "+errors, errors.isEmpty());
+			assertEquals("Every item was removed once", 5000, removed.get());
+			assertTrue("The tree is empty", recursive.isEmpty());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for removing from BST_Recursive");
+		}
+	}
+}
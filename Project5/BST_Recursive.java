@@ -6,22 +6,43 @@
 
 package project5;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+
 /**
  * The class provides a recursive implementation for a binary search tree. 
  * 
+ * The tree is a java.util.NavigableSet in the natural order of its items, so it can be used in
+ * place of a TreeSet: nearest-item searches (floor, ceiling, higher, lower), range views
+ * (subSet, headSet, tailSet, descendingSet) and iterators work on the tree itself without
+ * copying it. Every node also keeps the number of nodes in its subtree, which gives the
+ * order statistics rank and select, and the sizes of range views, in O(height).
+ * Null items are never stored: add, remove and contains ignore them.
+ * 
  * @author Joanna Klukowska
  *
  * @param <T> generic type of data that is stored in nodes of the tree; needs to
  *            implement Comparable<T> interface
  */
-public class BST_Recursive<T extends Comparable<T>> {
+public class BST_Recursive<T extends Comparable<T>> extends AbstractSet<T> implements NavigableSet<T> {
 
 	// root of the tree
 	protected Node<T> root;
 	// current number of nodes in the tree
 	protected int numOfElements;
-	//helper variable used by the remove methods 
-	private boolean found;
+	// number of changes to the tree, used by the iterators to detect concurrent changes
+	protected int modCount;
 
 	/**
 	 * Default constructor that creates an empty tree.
@@ -31,17 +52,147 @@ public class BST_Recursive<T extends Comparable<T>> {
 		numOfElements = 0;
 	}
 
+	/**
+	 * Constructor that builds a balanced tree out of items given in ascending order in O(n).
+	 * Null items and repeated items are ignored.
+	 *
+	 * @param sorted items in ascending order
+	 * @throws IllegalArgumentException if the items are not in ascending order
+	 */
+	public BST_Recursive(T[] sorted) {
+		this(Arrays.asList(sorted));
+	}
+
+	/**
+	 * Constructor that builds a balanced tree out of items given in ascending order in O(n).
+	 * Null items and repeated items are ignored.
+	 *
+	 * @param sorted items in ascending order
+	 * @throws IllegalArgumentException if the items are not in ascending order
+	 */
+	public BST_Recursive(Iterable<T> sorted) {
+		ArrayList<T> items = toSortedList(sorted);
+		root = build(items, 0, items.size() - 1);
+		numOfElements = items.size();
+	}
+
+	/**
+	 * Adds a batch of items given in ascending order to the tree. The batch is merged with the
+	 * current contents of the tree and the tree is rebuilt balanced, so the cost is O(n+m)
+	 * instead of m separate calls to add. Null items and items already in the tree are ignored.
+	 *
+	 * @param sorted items in ascending order
+	 * @throws IllegalArgumentException if the items are not in ascending order
+	 */
+	public void bulkAddAll(Iterable<T> sorted) {
+		ArrayList<T> batch = toSortedList(sorted);
+		if (batch.isEmpty())
+			return;
+
+		ArrayList<T> current = new ArrayList<T>(numOfElements);
+		inOrder(root, current);
+
+		// merge the two sorted lists, keeping a single copy of equal items
+		ArrayList<T> merged = new ArrayList<T>(current.size() + batch.size());
+		int i = 0, j = 0;
+		while (i < current.size() && j < batch.size()) {
+			int cmp = current.get(i).compareTo(batch.get(j));
+			if (cmp < 0)
+				merged.add(current.get(i++));
+			else if (cmp > 0)
+				merged.add(batch.get(j++));
+			else {
+				merged.add(current.get(i++));
+				j++;
+			}
+		}
+		while (i < current.size())
+			merged.add(current.get(i++));
+		while (j < batch.size())
+			merged.add(batch.get(j++));
+
+		root = build(merged, 0, merged.size() - 1);
+		numOfElements = merged.size();
+		modCount++;
+	}
+
+	/*
+	 * Copies items given in ascending order into a list, dropping nulls and repeated items.
+	 * 
+	 * @param sorted items in ascending order
+	 * @return list of distinct items in ascending order
+	 * @throws IllegalArgumentException if the items are not in ascending order
+	 */
+	private ArrayList<T> toSortedList(Iterable<T> sorted) {
+		ArrayList<T> items = new ArrayList<T>();
+		for (T item : sorted) {
+			if (item == null)
+				continue;
+			if (!items.isEmpty()) {
+				int cmp = items.get(items.size() - 1).compareTo(item);
+				if (cmp > 0)
+					throw new IllegalArgumentException("items are not sorted");
+				if (cmp == 0)
+					continue;
+			}
+			items.add(item);
+		}
+		return items;
+	}
+
+	/*
+	 * Actual recursive implementation of the bulk build: the middle item becomes the root
+	 * of the subtree and the two halves become its children.
+	 * 
+	 * @param sorted distinct items in ascending order
+	 * @param low index of the first item of the subtree
+	 * @param high index of the last item of the subtree
+	 * @return root of the balanced subtree
+	 */
+	private Node<T> build(ArrayList<T> sorted, int low, int high) {
+		if (low > high)
+			return null;
+		int mid = (low + high) >>> 1;
+		Node<T> node = new Node<T>(sorted.get(mid));
+		node.left = build(sorted, low, mid - 1);
+		node.right = build(sorted, mid + 1, high);
+		node.height = 1 + Math.max(node.left == null ? -1 : node.left.height,
+				node.right == null ? -1 : node.right.height);
+		node.size = high - low + 1;
+		return node;
+	}
+
+	/*
+	 * Actual recursive implementation of inorder traversal that collects the items of this tree.
+	 * 
+	 * @param tree the root of the current subtree
+	 * @param items list the items are added to
+	 */
+	private void inOrder(Node<T> tree, ArrayList<T> items) {
+		if (tree != null) {
+			inOrder(tree.left, items);
+			items.add(tree.data);
+			inOrder(tree.right, items);
+		}
+	}
+
 	/**
 	 * Add the given data item to the tree. If item is null, the tree does not
 	 * change. If item already exists, the tree does not change. 
 	 * 
 	 * @param item the new element to be added to the tree
+	 * @return true if the item was added, false if it is null or already in the tree
 	 */
-	public void add(T item) {
+	@Override
+	public boolean add(T item) {
 		if (item == null)
-			return;
+			return false;
+		int before = numOfElements;
 		root = add (root, item);
-		
+		if (numOfElements == before)
+			return false;
+		modCount++;
+		return true;
 	}
 
 	/*
@@ -58,6 +209,7 @@ public class BST_Recursive<T extends Comparable<T>> {
 			node.left = add(node.left, item);
 		else if (node.data.compareTo(item) < 0)
 			node.right = add(node.right, item);
+		node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
 		return node; 
 	}
 
@@ -66,11 +218,24 @@ public class BST_Recursive<T extends Comparable<T>> {
 	 * item is not found in the tree, the tree remains unchanged.
 	 * 
 	 * @param target the item to be removed from this tree 
+	 * @return true if the item was found and removed
 	 */
-	public boolean remove(T target)
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(Object target)
 	{
-		root = recRemove(target, root);
-		return found;
+		if (target == null)
+			return false;
+
+		// the result comes from the tree itself (the root's subtree shrinks exactly when a node
+		// was removed), so no state is shared between calls
+		int before = sizeOf(root);
+		root = recRemove((T) target, root);
+		if (sizeOf(root) == before)
+			return false;
+		numOfElements--;
+		modCount++;
+		return true;
 	}
 
 
@@ -78,19 +243,22 @@ public class BST_Recursive<T extends Comparable<T>> {
 	 * Actual recursive implementation of remove method: find the node to remove.  
 	 * 
 	 * @param target the item to be removed from this tree 
+	 * @param node the root of the current subtree
+	 * @return the root of the subtree without the target (its size is one less if the target was found)
 	 */
 	private Node<T> recRemove(T target, Node<T> node)
 	{
 		if (node == null)
-			found = false;
-		else if (target.compareTo(node.data) < 0)
+			return null;
+		int cmp = target.compareTo(node.data);
+		if (cmp < 0)
 			node.left = recRemove(target, node.left);
-		else if (target.compareTo(node.data) > 0)
+		else if (cmp > 0)
 			node.right = recRemove(target, node.right );
-		else {
+		else
 			node = removeNode(node);
-			found = true;
-		}
+		if (node != null)
+			node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
 		return node;
 	}
 	
@@ -137,36 +305,364 @@ public class BST_Recursive<T extends Comparable<T>> {
 	 * 
 	 * @return number of elements in this BST
 	 */
+	@Override
 	public int size() {
 		return numOfElements;
 	}
 
+	/**
+	 * Removes all items from this tree.
+	 */
+	@Override
+	public void clear() {
+		root = null;
+		numOfElements = 0;
+		modCount++;
+	}
+
+	/**
+	 * Determines whether the given item is stored in this tree.
+	 * 
+	 * @param item the item to look for
+	 * @return true if an equal item is stored in the tree, false otherwise (or if item is null)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object item) {
+		if (item == null)
+			return false;
+		T target = (T) item;
+		Node<T> node = root;
+		while (node != null) {
+			int cmp = target.compareTo(node.data);
+			if (cmp == 0)
+				return true;
+			node = cmp < 0 ? node.left : node.right;
+		}
+		return false;
+	}
+
+	/**
+	 * Determines the position the given item has, or would have, in the sorted order of this tree.
+	 * 
+	 * @param item the item
+	 * @return number of items in the tree that are less than item
+	 */
+	public int rank(T item) {
+		return countBelow(item, false);
+	}
+
+	/**
+	 * Returns the item at the given position in the sorted order of this tree.
+	 * 
+	 * @param index position of the item (0 for the smallest item)
+	 * @return item with exactly index smaller items in the tree
+	 * @throws IndexOutOfBoundsException if index is negative or not less than size()
+	 */
+	public T select(int index) {
+		if (index < 0 || index >= numOfElements)
+			throw new IndexOutOfBoundsException("index " + index + ", size " + numOfElements);
+		Node<T> node = root;
+		while (true) {
+			int left = sizeOf(node.left);
+			if (index < left)
+				node = node.left;
+			else if (index == left)
+				return node.data;
+			else {
+				index -= left + 1;
+				node = node.right;
+			}
+		}
+	}
+
+	@Override
+	public T lower(T item) {
+		return dataOf(floorNode(item, false));
+	}
+
+	@Override
+	public T floor(T item) {
+		return dataOf(floorNode(item, true));
+	}
+
+	@Override
+	public T ceiling(T item) {
+		return dataOf(ceilingNode(item, true));
+	}
+
+	@Override
+	public T higher(T item) {
+		return dataOf(ceilingNode(item, false));
+	}
+
+	@Override
+	public T first() {
+		if (root == null)
+			throw new NoSuchElementException();
+		return firstNode().data;
+	}
+
+	@Override
+	public T last() {
+		if (root == null)
+			throw new NoSuchElementException();
+		return lastNode().data;
+	}
+
+	@Override
+	public T pollFirst() {
+		if (root == null)
+			return null;
+		T item = firstNode().data;
+		remove(item);
+		return item;
+	}
+
+	@Override
+	public T pollLast() {
+		if (root == null)
+			return null;
+		T item = lastNode().data;
+		remove(item);
+		return item;
+	}
+
+	/**
+	 * Returns null, since the tree uses the natural order of its items.
+	 * 
+	 * @return null
+	 */
+	@Override
+	public Comparator<? super T> comparator() {
+		return null;
+	}
+
+	/**
+	 * Returns an iterator over the items of this tree in ascending order. It supports remove,
+	 * and it throws ConcurrentModificationException if the tree is changed in any other way
+	 * while it is in use.
+	 * 
+	 * @return iterator over the items
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new TreeIterator(null, false, null, false, false);
+	}
+
+	@Override
+	public Iterator<T> descendingIterator() {
+		return new TreeIterator(null, false, null, false, true);
+	}
+
+	/**
+	 * Returns a view of this tree in descending order (changes to either one show in the other).
+	 * 
+	 * @return reverse order view
+	 */
+	@Override
+	public NavigableSet<T> descendingSet() {
+		return new SubSet(null, false, null, false, true);
+	}
+
+	/**
+	 * Returns a view of the items of this tree within a range (changes to either one show in
+	 * the other). Adding an item outside of the range to the view throws IllegalArgumentException.
+	 * 
+	 * @param fromItem low end of the range
+	 * @param fromInclusive whether the range includes fromItem
+	 * @param toItem high end of the range
+	 * @param toInclusive whether the range includes toItem
+	 * @return range view
+	 * @throws IllegalArgumentException if fromItem is greater than toItem
+	 */
+	@Override
+	public NavigableSet<T> subSet(T fromItem, boolean fromInclusive, T toItem, boolean toInclusive) {
+		return new SubSet(null, false, null, false, false).subSet(fromItem, fromInclusive, toItem, toInclusive);
+	}
+
+	@Override
+	public NavigableSet<T> headSet(T toItem, boolean inclusive) {
+		return new SubSet(null, false, null, false, false).headSet(toItem, inclusive);
+	}
+
+	@Override
+	public NavigableSet<T> tailSet(T fromItem, boolean inclusive) {
+		return new SubSet(null, false, null, false, false).tailSet(fromItem, inclusive);
+	}
+
+	@Override
+	public NavigableSet<T> subSet(T fromItem, T toItem) {
+		return subSet(fromItem, true, toItem, false);
+	}
+
+	@Override
+	public NavigableSet<T> headSet(T toItem) {
+		return headSet(toItem, false);
+	}
+
+	@Override
+	public NavigableSet<T> tailSet(T fromItem) {
+		return tailSet(fromItem, true);
+	}
+
+	/*
+	 * Finds the node of the greatest item that is less than (or, if inclusive, equal to) item.
+	 * 
+	 * @param item the item
+	 * @param inclusive whether a node equal to item is accepted
+	 * @return the node, or null if there is none
+	 */
+	private Node<T> floorNode(T item, boolean inclusive) {
+		Node<T> best = null;
+		Node<T> node = root;
+		while (node != null) {
+			int cmp = item.compareTo(node.data);
+			if (cmp == 0 && inclusive)
+				return node;
+			if (cmp > 0) {
+				best = node;
+				node = node.right;
+			} else
+				node = node.left;
+		}
+		return best;
+	}
+
+	/*
+	 * Finds the node of the least item that is greater than (or, if inclusive, equal to) item.
+	 * 
+	 * @param item the item
+	 * @param inclusive whether a node equal to item is accepted
+	 * @return the node, or null if there is none
+	 */
+	private Node<T> ceilingNode(T item, boolean inclusive) {
+		Node<T> best = null;
+		Node<T> node = root;
+		while (node != null) {
+			int cmp = item.compareTo(node.data);
+			if (cmp == 0 && inclusive)
+				return node;
+			if (cmp < 0) {
+				best = node;
+				node = node.left;
+			} else
+				node = node.right;
+		}
+		return best;
+	}
+
+	/*
+	 * Returns the leftmost node of this tree (the tree cannot be empty).
+	 */
+	private Node<T> firstNode() {
+		Node<T> node = root;
+		while (node.left != null)
+			node = node.left;
+		return node;
+	}
+
+	/*
+	 * Returns the rightmost node of this tree (the tree cannot be empty).
+	 */
+	private Node<T> lastNode() {
+		Node<T> node = root;
+		while (node.right != null)
+			node = node.right;
+		return node;
+	}
+
+	/*
+	 * Counts the items that are less than (or, if inclusive, equal to) item, using the subtree
+	 * sizes of the nodes on a single path.
+	 * 
+	 * @param item the item
+	 * @param inclusive whether an item equal to item is counted
+	 * @return number of items
+	 */
+	private int countBelow(T item, boolean inclusive) {
+		int count = 0;
+		Node<T> node = root;
+		while (node != null) {
+			int cmp = item.compareTo(node.data);
+			if (cmp == 0)
+				return count + sizeOf(node.left) + (inclusive ? 1 : 0);
+			if (cmp < 0)
+				node = node.left;
+			else {
+				count += 1 + sizeOf(node.left);
+				node = node.right;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Returns the number of nodes in a subtree (0 for an empty subtree).
+	 */
+	static <T extends Comparable<T>> int sizeOf(Node<T> node) {
+		return node == null ? 0 : node.size;
+	}
+
+	/*
+	 * Returns the data of a node (null for no node).
+	 */
+	private static <T extends Comparable<T>> T dataOf(Node<T> node) {
+		return node == null ? null : node.data;
+	}
+
 	/**
 	 * Returns a string representation of this tree using an inorder traversal . 
 	 * @see java.lang.Object#toString()
 	 * @return string representation of this tree 
 	 */
+	@Override
 	public String toString() {
 		StringBuilder s = new StringBuilder();
-		inOrderPrint(root, s);
+		try {
+			writeTo(s);
+		} catch (IOException e) {
+			// a StringBuilder never throws
+			throw new AssertionError(e);
+		}
 		return s.toString();
 	}
 
-	/*
-	 * Actual recursive implementation of inorder traversal to produce string
-	 * representation of this tree.
+	/**
+	 * Writes the string representation of this tree (see toString) to the given destination,
+	 * one item at a time, so that the whole representation never has to be in memory.
 	 * 
-	 * @param tree the root of the current subtree
-	 * @param s the string that accumulated the string representation of this BST
+	 * @param out destination of the text (for example a StringBuilder or a Writer)
+	 * @throws IOException if the destination cannot be written
 	 */
-	private void inOrderPrint(Node<T> tree, StringBuilder s) {
-		if (tree != null) {
-			inOrderPrint(tree.left, s);
-			s.append(tree.data.toString() + "  ");
-			inOrderPrint(tree.right , s);
+	public void writeTo(Appendable out) throws IOException {
+		// iterative inorder traversal: the stack holds the nodes whose left subtree is being written
+		ArrayDeque<Node<T>> stack = new ArrayDeque<Node<T>>();
+		Node<T> node = root;
+		while (node != null || !stack.isEmpty()) {
+			while (node != null) {
+				stack.push(node);
+				node = node.left;
+			}
+			node = stack.pop();
+			out.append(node.data.toString()).append("  ");
+			node = node.right;
 		}
 	}
 
+	/**
+	 * Writes the string representation of this tree (see toString) to the given channel in UTF-8.
+	 * The channel is not closed.
+	 * 
+	 * @param channel destination of the text (for example a FileChannel)
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		Writer out = TreeWriter.open(channel);
+		writeTo(out);
+		out.flush();
+	}
+
 	/**
 	 * Produces tree like string representation of this BST.
 	 * @return string containing tree-like representation of this BST.
@@ -174,48 +670,436 @@ public class BST_Recursive<T extends Comparable<T>> {
 	public String toStringTreeFormat() {
 
 		StringBuilder s = new StringBuilder();
-
-		preOrderPrint(root, 0, s);
+		try {
+			writeTreeFormat(s);
+		} catch (IOException e) {
+			// a StringBuilder never throws
+			throw new AssertionError(e);
+		}
 		return s.toString();
 	}
 
+	/**
+	 * Writes the tree like string representation of this BST (see toStringTreeFormat) to the
+	 * given destination, one line at a time. The traversal uses an explicit stack instead of
+	 * recursion, so a degenerate tree of any depth can be written.
+	 * 
+	 * @param out destination of the text (for example a StringBuilder or a Writer)
+	 * @throws IOException if the destination cannot be written
+	 */
+	public void writeTreeFormat(Appendable out) throws IOException {
+		TreeWriter writer = new TreeWriter(out);
+
+		// preorder traversal: the stack holds the subtrees (empty ones as null) still to be
+		// written, together with their levels
+		Node<T>[] nodes = newStack(16);
+		int[] levels = new int[16];
+		int top = 0;
+		nodes[top] = root;
+		levels[top++] = 0;
+		while (top > 0) {
+			Node<T> node = nodes[--top];
+			int level = levels[top];
+			nodes[top] = null;
+			writer.write(level, node == null ? null : node.data);
+			if (node != null) {
+				if (top + 2 > nodes.length) {
+					nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+					levels = Arrays.copyOf(levels, 2 * levels.length);
+				}
+				// the left subtree is written before the right one
+				nodes[top] = node.right;
+				levels[top++] = level + 1;
+				nodes[top] = node.left;
+				levels[top++] = level + 1;
+			}
+		}
+	}
+
+	/**
+	 * Writes the tree like string representation of this BST (see toStringTreeFormat) to the
+	 * given channel in UTF-8. The channel is not closed.
+	 * 
+	 * @param channel destination of the text (for example a FileChannel)
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeTreeFormat(WritableByteChannel channel) throws IOException {
+		Writer out = TreeWriter.open(channel);
+		writeTreeFormat(out);
+		out.flush();
+	}
+
 	/*
-	 * Actual recursive implementation of preorder traversal to produce tree-like string
-	 * representation of this tree.
+	 * Creates an empty array of nodes.
 	 * 
-	 * @param tree the root of the current subtree
-	 * @param level level (depth) of the current recursive call in the tree to
-	 *   determine the indentation of each item
-	 * @param output the string that accumulated the string representation of this
-	 *   BST
+	 * @param length length of the array
+	 * @return array of nulls
 	 */
-	private void preOrderPrint(Node<T> tree, int level, StringBuilder output) {
-		if (tree != null) {
-			String spaces = "\n";
-			if (level > 0) {
-				for (int i = 0; i < level - 1; i++)
-					spaces += "   ";
-				spaces += "|--";
+	@SuppressWarnings("unchecked")
+	private static <T extends Comparable<T>> Node<T>[] newStack(int length) {
+		return (Node<T>[]) new Node<?>[length];
+	}
+	
+	
+	/**
+	 * Iterator over the items of a range of the tree (null bounds are open ends) in ascending or
+	 * descending order. It keeps the nodes whose items are still to be returned on a stack, so
+	 * each step takes O(1) amortized time.
+	 */
+	private class TreeIterator implements Iterator<T> {
+
+		// range of the items and direction of the iteration
+		private final T lo;
+		private final boolean loInclusive;
+		private final T hi;
+		private final boolean hiInclusive;
+		private final boolean descending;
+
+		// nodes whose item (and one subtree) have not been returned yet, the next one on top
+		private final ArrayDeque<Node<T>> stack = new ArrayDeque<Node<T>>();
+		// item returned by the last call of next, or null after remove
+		private T lastReturned;
+		// modCount of the tree that this iterator expects
+		private int expectedModCount = modCount;
+
+		private TreeIterator(T lo, boolean loInclusive, T hi, boolean hiInclusive, boolean descending) {
+			this.lo = lo;
+			this.loInclusive = loInclusive;
+			this.hi = hi;
+			this.hiInclusive = hiInclusive;
+			this.descending = descending;
+			if (descending)
+				seek(hi, hiInclusive);
+			else
+				seek(lo, loInclusive);
+		}
+
+		/*
+		 * Fills the stack with the path to the first item at or after (in the direction of the
+		 * iteration) the given bound.
+		 * 
+		 * @param bound the bound, or null to start at the first item
+		 * @param inclusive whether an item equal to the bound comes after it
+		 */
+		private void seek(T bound, boolean inclusive) {
+			stack.clear();
+			Node<T> node = root;
+			while (node != null) {
+				int cmp = bound == null ? 0 : node.data.compareTo(bound);
+				if (descending)
+					cmp = -cmp;
+				if (bound != null && (cmp < 0 || (cmp == 0 && !inclusive)))
+					node = descending ? node.left : node.right;
+				else {
+					stack.push(node);
+					node = descending ? node.right : node.left;
+				}
 			}
-			output.append(spaces);
-			output.append(tree.data);
-			preOrderPrint(tree.left, level + 1, output);
-			preOrderPrint(tree.right , level + 1, output);
 		}
-		// uncomment the part below to show "null children" in the output
-		else {
-			String spaces = "\n";
-			if (level > 0) {
-				for (int i = 0; i < level - 1; i++)
-					spaces += "   ";
-				spaces += "|--";
+
+		@Override
+		public boolean hasNext() {
+			if (stack.isEmpty())
+				return false;
+
+			// the next item may be beyond the end of the range
+			T next = stack.peek().data;
+			T end = descending ? lo : hi;
+			if (end == null)
+				return true;
+			int cmp = next.compareTo(end);
+			if (descending)
+				cmp = -cmp;
+			return cmp < 0 || (cmp == 0 && (descending ? loInclusive : hiInclusive));
+		}
+
+		@Override
+		public T next() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Node<T> node = stack.pop();
+			for (Node<T> child = descending ? node.left : node.right; child != null;
+					child = descending ? child.right : child.left)
+				stack.push(child);
+			lastReturned = node.data;
+			return lastReturned;
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturned == null)
+				throw new IllegalStateException();
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+
+			// removing a node can move items between nodes, so the path is found again
+			BST_Recursive.this.remove(lastReturned);
+			expectedModCount = modCount;
+			seek(lastReturned, false);
+			lastReturned = null;
+		}
+	}
+
+	/**
+	 * View of the items of the tree within a range (null bounds are open ends), in ascending or
+	 * descending order. The view has no items of its own: every method works on the tree, and
+	 * size() counts the range with two rank computations instead of iterating over it.
+	 */
+	private class SubSet extends AbstractSet<T> implements NavigableSet<T> {
+
+		// range of the view in ascending order, and direction of the view
+		private final T lo;
+		private final boolean loInclusive;
+		private final T hi;
+		private final boolean hiInclusive;
+		private final boolean descending;
+
+		private SubSet(T lo, boolean loInclusive, T hi, boolean hiInclusive, boolean descending) {
+			this.lo = lo;
+			this.loInclusive = loInclusive;
+			this.hi = hi;
+			this.hiInclusive = hiInclusive;
+			this.descending = descending;
+		}
+
+		/*
+		 * Determines whether an item comes before the low end of the range.
+		 */
+		private boolean tooLow(T item) {
+			if (lo == null)
+				return false;
+			int cmp = item.compareTo(lo);
+			return cmp < 0 || (cmp == 0 && !loInclusive);
+		}
+
+		/*
+		 * Determines whether an item comes after the high end of the range.
+		 */
+		private boolean tooHigh(T item) {
+			if (hi == null)
+				return false;
+			int cmp = item.compareTo(hi);
+			return cmp > 0 || (cmp == 0 && !hiInclusive);
+		}
+
+		/*
+		 * Determines whether an item can be the end of a range within this range (an item that
+		 * equals an excluded end of this range is only allowed as an excluded end).
+		 */
+		private boolean inRange(T item, boolean inclusive) {
+			if (inclusive)
+				return !tooLow(item) && !tooHigh(item);
+			return (lo == null || item.compareTo(lo) >= 0) && (hi == null || item.compareTo(hi) <= 0);
+		}
+
+		/*
+		 * Returns the node of the least item in the range, or null if the range is empty.
+		 */
+		private Node<T> lowest() {
+			if (root == null)
+				return null;
+			Node<T> node = lo == null ? firstNode() : ceilingNode(lo, loInclusive);
+			return node == null || tooHigh(node.data) ? null : node;
+		}
+
+		/*
+		 * Returns the node of the greatest item in the range, or null if the range is empty.
+		 */
+		private Node<T> highest() {
+			if (root == null)
+				return null;
+			Node<T> node = hi == null ? lastNode() : floorNode(hi, hiInclusive);
+			return node == null || tooLow(node.data) ? null : node;
+		}
+
+		/*
+		 * Returns the node of the least item in the range that is greater than (or, if
+		 * inclusive, equal to) item.
+		 */
+		private Node<T> ceiling(T item, boolean inclusive) {
+			if (tooLow(item))
+				return lowest();
+			Node<T> node = ceilingNode(item, inclusive);
+			return node == null || tooHigh(node.data) ? null : node;
+		}
+
+		/*
+		 * Returns the node of the greatest item in the range that is less than (or, if
+		 * inclusive, equal to) item.
+		 */
+		private Node<T> floor(T item, boolean inclusive) {
+			if (tooHigh(item))
+				return highest();
+			Node<T> node = floorNode(item, inclusive);
+			return node == null || tooLow(node.data) ? null : node;
+		}
+
+		@Override
+		public int size() {
+			int below = hi == null ? numOfElements : countBelow(hi, hiInclusive);
+			int before = lo == null ? 0 : countBelow(lo, !loInclusive);
+			return Math.max(below - before, 0);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return lowest() == null;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean contains(Object item) {
+			return item != null && inRange((T) item, true) && BST_Recursive.this.contains(item);
+		}
+
+		@Override
+		public boolean add(T item) {
+			if (item == null)
+				return false;
+			if (!inRange(item, true))
+				throw new IllegalArgumentException("item out of range");
+			return BST_Recursive.this.add(item);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean remove(Object item) {
+			return item != null && inRange((T) item, true) && BST_Recursive.this.remove(item);
+		}
+
+		@Override
+		public T lower(T item) {
+			return dataOf(descending ? ceiling(item, false) : floor(item, false));
+		}
+
+		@Override
+		public T floor(T item) {
+			return dataOf(descending ? ceiling(item, true) : floor(item, true));
+		}
+
+		@Override
+		public T ceiling(T item) {
+			return dataOf(descending ? floor(item, true) : ceiling(item, true));
+		}
+
+		@Override
+		public T higher(T item) {
+			return dataOf(descending ? floor(item, false) : ceiling(item, false));
+		}
+
+		@Override
+		public T first() {
+			Node<T> node = descending ? highest() : lowest();
+			if (node == null)
+				throw new NoSuchElementException();
+			return node.data;
+		}
+
+		@Override
+		public T last() {
+			Node<T> node = descending ? lowest() : highest();
+			if (node == null)
+				throw new NoSuchElementException();
+			return node.data;
+		}
+
+		@Override
+		public T pollFirst() {
+			T item = dataOf(descending ? highest() : lowest());
+			if (item != null)
+				BST_Recursive.this.remove(item);
+			return item;
+		}
+
+		@Override
+		public T pollLast() {
+			T item = dataOf(descending ? lowest() : highest());
+			if (item != null)
+				BST_Recursive.this.remove(item);
+			return item;
+		}
+
+		@Override
+		public Comparator<? super T> comparator() {
+			return descending ? Collections.<T>reverseOrder() : null;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new TreeIterator(lo, loInclusive, hi, hiInclusive, descending);
+		}
+
+		@Override
+		public Iterator<T> descendingIterator() {
+			return new TreeIterator(lo, loInclusive, hi, hiInclusive, !descending);
+		}
+
+		@Override
+		public NavigableSet<T> descendingSet() {
+			return new SubSet(lo, loInclusive, hi, hiInclusive, !descending);
+		}
+
+		@Override
+		public NavigableSet<T> subSet(T fromItem, boolean fromInclusive, T toItem, boolean toInclusive) {
+			if (fromItem == null || toItem == null)
+				throw new NullPointerException();
+
+			// in a descending view the range is given from its high end
+			if (descending) {
+				T item = fromItem;
+				fromItem = toItem;
+				toItem = item;
+				boolean inclusive = fromInclusive;
+				fromInclusive = toInclusive;
+				toInclusive = inclusive;
 			}
-			output.append(spaces);
-			output.append("null");
+			if (fromItem.compareTo(toItem) > 0)
+				throw new IllegalArgumentException("range ends before it starts");
+			if (!inRange(fromItem, fromInclusive) || !inRange(toItem, toInclusive))
+				throw new IllegalArgumentException("range is not within the view");
+			return new SubSet(fromItem, fromInclusive, toItem, toInclusive, descending);
+		}
+
+		@Override
+		public NavigableSet<T> headSet(T toItem, boolean inclusive) {
+			if (toItem == null)
+				throw new NullPointerException();
+			if (!inRange(toItem, inclusive))
+				throw new IllegalArgumentException("range is not within the view");
+			if (descending)
+				return new SubSet(toItem, inclusive, hi, hiInclusive, true);
+			return new SubSet(lo, loInclusive, toItem, inclusive, false);
+		}
+
+		@Override
+		public NavigableSet<T> tailSet(T fromItem, boolean inclusive) {
+			if (fromItem == null)
+				throw new NullPointerException();
+			if (!inRange(fromItem, inclusive))
+				throw new IllegalArgumentException("range is not within the view");
+			if (descending)
+				return new SubSet(lo, loInclusive, fromItem, inclusive, true);
+			return new SubSet(fromItem, inclusive, hi, hiInclusive, false);
+		}
+
+		@Override
+		public NavigableSet<T> subSet(T fromItem, T toItem) {
+			return subSet(fromItem, true, toItem, false);
+		}
+
+		@Override
+		public NavigableSet<T> headSet(T toItem) {
+			return headSet(toItem, false);
+		}
+
+		@Override
+		public NavigableSet<T> tailSet(T fromItem) {
+			return tailSet(fromItem, true);
 		}
 	}
-	
-	
+
 	/**
 	 * Node class is used to represent nodes in a binary search tree.
 	 * It contains a data item that has to implement Comparable interface
@@ -234,6 +1118,7 @@ public class BST_Recursive<T extends Comparable<T>> {
 		protected T data;            //data item stored in the node
 
 		protected int height; 
+		protected int size;  //number of nodes in the subtree of this node
 		
 		
 		/**
@@ -248,6 +1133,7 @@ public class BST_Recursive<T extends Comparable<T>> {
 			left = null;
 			right = null;
 			height = 0; 
+			size = 1;
 		}
 		
 			
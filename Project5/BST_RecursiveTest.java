@@ -0,0 +1,272 @@
+package project5;
+
+//import the junit package
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.*;
+
+/**
+ * This class is responsible for testing the NavigableSet methods of the BST_Recursive class
+ * using junit testing. Every result is compared with the result of a TreeSet holding the same items.
+ *
+ * @author Nanako Chung
+ */
+@SuppressWarnings("unused")
+public class BST_RecursiveTest {
+
+	//trees and TreeSets filled by setUp with the same random items between 0 and 2000
+	private BST_Recursive<Integer> tree;
+	private TreeSet<Integer> expected;
+
+	//fills the tree and the TreeSet before every test
+	@Before
+	public void setUp() {
+		tree=new BST_Recursive<Integer>();
+		expected=new TreeSet<Integer>();
+		Random random=new Random(22);
+		for (int i=0; i<500; i++) {
+			int item=random.nextInt(1000)*2;
+			assertEquals("add returns the same as TreeSet", expected.add(item), tree.add(item));
+		}
+	}
+
+	/**
+	 * Copies the items of an iterator into a list
+	 *
+	 * @param Iterator iterator
+	 * @return ArrayList of the items in the order of the iterator
+	 */
+	private static ArrayList<Integer> toList(Iterator<Integer> iterator) {
+		ArrayList<Integer> items=new ArrayList<Integer>();
+		while (iterator.hasNext()) {
+			items.add(iterator.next());
+		}
+		return items;
+	}
+
+	//tests lower, floor, ceiling, and higher
+	@Test
+	public void testFloorCeiling_1() {
+		try {
+
+			//probes every stored item, every item between them, and items beyond both ends
+			for (int item=-2; item<=2002; item++) {
+				assertEquals("lower of "+item, expected.lower(item), tree.lower(item));
+				assertEquals("floor of "+item, expected.floor(item), tree.floor(item));
+				assertEquals("ceiling of "+item, expected.ceiling(item), tree.ceiling(item));
+				assertEquals("higher of "+item, expected.higher(item), tree.higher(item));
+			}
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for lower, floor, ceiling, or higher");
+		}
+	}
+
+	//tests lower, floor, ceiling, and higher on an empty tree
+	@Test
+	public void testFloorCeiling_2() {
+		try {
+
+			//every method returns null
+			BST_Recursive<Integer> empty=new BST_Recursive<Integer>();
+			assertNull("lower of an empty tree", empty.lower(5));
+			assertNull("floor of an empty tree", empty.floor(5));
+			assertNull("ceiling of an empty tree", empty.ceiling(5));
+			assertNull("higher of an empty tree", empty.higher(5));
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for an empty tree");
+		}
+	}
+
+	//tests rank and select
+	@Test
+	public void testRankSelect_1() {
+		try {
+
+			//select returns the items in ascending order and rank is the number of smaller items
+			int index=0;
+			for (Integer item : expected) {
+				assertEquals("select of "+index, item, tree.select(index));
+				assertEquals("rank of "+item, index, tree.rank(item));
+				index++;
+			}
+			for (int item=-1; item<=2001; item+=2) {
+				assertEquals("rank of "+item, expected.headSet(item).size(), tree.rank(item));
+			}
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for rank or select");
+		}
+	}
+
+	//tests select with an index out of range
+	@Test
+	public void testRankSelect_2() {
+		try {
+
+			//an index past the end throws IndexOutOfBoundsException
+			tree.select(tree.size());
+			fail("select past the end does not throw");
+		}
+
+		catch (IndexOutOfBoundsException e) {
+			//select throws proper exception
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for select");
+		}
+	}
+
+	//tests first, last, pollFirst, and pollLast
+	@Test
+	public void testPoll_1() {
+		try {
+
+			//polls from both ends until the tree is empty
+			while (!expected.isEmpty()) {
+				assertEquals("first", expected.first(), tree.first());
+				assertEquals("last", expected.last(), tree.last());
+				assertEquals("pollFirst", expected.pollFirst(), tree.pollFirst());
+				assertEquals("pollLast", expected.pollLast(), tree.pollLast());
+				assertEquals("size after polling", expected.size(), tree.size());
+			}
+			assertNull("pollFirst of an empty tree", tree.pollFirst());
+			assertNull("pollLast of an empty tree", tree.pollLast());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for polling");
+		}
+	}
+
+	//tests first on an empty tree
+	@Test
+	public void testPoll_2() {
+		try {
+
+			//first of an empty tree throws NoSuchElementException
+			new BST_Recursive<Integer>().first();
+			fail("first of an empty tree does not throw");
+		}
+
+		catch (NoSuchElementException e) {
+			//first throws proper exception
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for first");
+		}
+	}
+
+	//tests subSet, headSet, and tailSet
+	@Test
+	public void testSubSet_1() {
+		try {
+
+			//random ranges with every combination of inclusive ends
+			Random random=new Random(7);
+			for (int i=0; i<200; i++) {
+				int from=random.nextInt(2004)-2;
+				int to=from+random.nextInt(2004-from);
+				boolean fromInclusive=random.nextBoolean();
+				boolean toInclusive=random.nextBoolean();
+				NavigableSet<Integer> view=tree.subSet(from, fromInclusive, to, toInclusive);
+				NavigableSet<Integer> expectedView=expected.subSet(from, fromInclusive, to, toInclusive);
+				assertEquals("subSet has the same items", new ArrayList<Integer>(expectedView), toList(view.iterator()));
+				assertEquals("subSet has the same size", expectedView.size(), view.size());
+				assertEquals("headSet has the same items", new ArrayList<Integer>(expected.headSet(to, toInclusive)), toList(tree.headSet(to, toInclusive).iterator()));
+				assertEquals("tailSet has the same items", new ArrayList<Integer>(expected.tailSet(from, fromInclusive)), toList(tree.tailSet(from, fromInclusive).iterator()));
+				int probe=random.nextInt(2004)-2;
+				assertEquals("floor within the subSet", expectedView.floor(probe), view.floor(probe));
+				assertEquals("higher within the subSet", expectedView.higher(probe), view.higher(probe));
+				assertEquals("contains within the subSet", expectedView.contains(probe), view.contains(probe));
+			}
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for subSet, headSet, or tailSet");
+		}
+	}
+
+	//tests that a subSet is a view of the tree
+	@Test
+	public void testSubSet_2() {
+		try {
+
+			//changes through the view show in the tree and the other way around
+			NavigableSet<Integer> view=tree.subSet(100, true, 200, false);
+			assertTrue("An odd item within the range is added", view.add(101));
+			assertTrue("The tree has the item added to the view", tree.contains(101));
+			tree.add(103);
+			assertTrue("The view has the item added to the tree", view.contains(103));
+			assertFalse("The view does not remove an item outside of the range", view.remove(200));
+			view.add(201);
+			fail("Adding an item outside of the range does not throw");
+		}
+
+		catch (IllegalArgumentException e) {
+			//add throws proper exception
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a subSet view");
+		}
+	}
+
+	//tests descendingSet and descendingIterator
+	@Test
+	public void testDescending_1() {
+		try {
+
+			//the items come in descending order, and the navigation methods are reversed
+			assertEquals("descendingIterator", toList(expected.descendingIterator()), toList(tree.descendingIterator()));
+			NavigableSet<Integer> descending=tree.descendingSet();
+			NavigableSet<Integer> expectedDescending=expected.descendingSet();
+			assertEquals("descendingSet", new ArrayList<Integer>(expectedDescending), toList(descending.iterator()));
+			assertEquals("first of descendingSet", expectedDescending.first(), descending.first());
+			for (int item=-2; item<=2002; item+=3) {
+				assertEquals("floor of descendingSet", expectedDescending.floor(item), descending.floor(item));
+				assertEquals("higher of descendingSet", expectedDescending.higher(item), descending.higher(item));
+			}
+			assertEquals("headSet of descendingSet", new ArrayList<Integer>(expectedDescending.headSet(1000, true)), toList(descending.headSet(1000, true).iterator()));
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for descendingSet");
+		}
+	}
+
+	//tests remove through the iterator
+	@Test
+	public void testIterator_1() {
+		try {
+
+			//removes every other item through the iterators of both sets
+			Iterator<Integer> iterator=tree.iterator();
+			Iterator<Integer> expectedIterator=expected.iterator();
+			boolean remove=false;
+			while (expectedIterator.hasNext()) {
+				assertTrue("The iterator has the same number of items", iterator.hasNext());
+				assertEquals("The iterator returns the same item", expectedIterator.next(), iterator.next());
+				if (remove) {
+					iterator.remove();
+					expectedIterator.remove();
+				}
+				remove=!remove;
+			}
+			assertFalse("The iterator has no more items", iterator.hasNext());
+			assertEquals("The same items are left", new ArrayList<Integer>(expected), toList(tree.iterator()));
+			assertEquals("The same number of items are left", expected.size(), tree.size());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for removing through the iterator");
+		}
+	}
+}
@@ -13,9 +13,12 @@ import java.lang.*;
  */
 public class Collision implements Comparable<Collision> {
 
-	//creates private data fields for date, zip, number of people/pedestrians/cyclists/motorists injured/killed, and key
+	//marks a key that is not stored as a number (the key is then kept as a String)
+	static final long TEXT_KEY=-1;
+
+	//creates private data fields for date, zip (as its ZipCodes code), number of people/pedestrians/cyclists/motorists injured/killed, and key
 	private Date date;
-	private String zip;
+	private int zip;
 	private int personsInjured;
 	private int personsKilled;
 	private int pedestriansInjured;
@@ -24,6 +27,12 @@ public class Collision implements Comparable<Collision> {
 	private int cyclistsKilled;
 	private int motoristsInjured;
 	private int motoristsKilled;
+
+	//zip code and date packed into one long (see sortKey), so that most comparisons are a single long comparison
+	private long sortKey;
+
+	//numeric keys are stored as a long (key is then null), all other keys as a String (number is then TEXT_KEY)
+	private long number;
 	private String key;
 
 	/**
@@ -42,8 +51,8 @@ public class Collision implements Comparable<Collision> {
 		//sets the data fields using ArrayList input
 		try {
 			this.date=new Date(entries.get(0));
-			this.key=entries.get(23);
-			this.zip=entries.get(3);
+			setKey(entries.get(23));
+			this.zip=ZipCodes.code(entries.get(3));
 			this.personsInjured=Integer.parseInt(entries.get(10));
 			this.personsKilled=Integer.parseInt(entries.get(11));
 			this.pedestriansInjured=Integer.parseInt(entries.get(12));
@@ -56,8 +65,120 @@ public class Collision implements Comparable<Collision> {
 			throw new IllegalArgumentException();
 		}
 
-		//throws exception if zip is not valid
-		if (zip.matches("\\d{5}")==false) {
+		//checks that the fields read from the ArrayList are valid
+		validate();
+		this.sortKey=sortKey(zip, date);
+	}
+
+	/**
+	 * This constructor is responsible for creating a Collision from values that were already
+	 * parsed
+	 *
+	 * @param Date date of the collision
+	 * @param String zip code
+	 * @param String key
+	 * @param int persons, pedestrians, cyclists, and motorists injured/killed
+	 * @throws IllegalArgumentException date or zip is not valid, injured/killed are negative numbers, or key is empty
+	 */
+	Collision(Date date, String zip, String key, int personsInjured, int personsKilled, int pedestriansInjured, int pedestriansKilled,
+			int cyclistsInjured, int cyclistsKilled, int motoristsInjured, int motoristsKilled) throws IllegalArgumentException {
+		this(date, ZipCodes.code(zip), key, personsInjured, personsKilled, pedestriansInjured, pedestriansKilled,
+				cyclistsInjured, cyclistsKilled, motoristsInjured, motoristsKilled);
+	}
+
+	/**
+	 * This constructor is responsible for creating a Collision from values that were already
+	 * parsed, with the zip code as its ZipCodes code (used by CollisionsLoader and
+	 * CollisionsSnapshot, which never create a String for the zip code)
+	 *
+	 * @param Date date of the collision
+	 * @param int code of the zip code
+	 * @param String key
+	 * @param int persons, pedestrians, cyclists, and motorists injured/killed
+	 * @throws IllegalArgumentException date or zip is not valid, injured/killed are negative numbers, or key is empty
+	 */
+	Collision(Date date, int zip, String key, int personsInjured, int personsKilled, int pedestriansInjured, int pedestriansKilled,
+			int cyclistsInjured, int cyclistsKilled, int motoristsInjured, int motoristsKilled) throws IllegalArgumentException {
+
+		//date cannot be empty
+		if (date==null) {
+			throw new IllegalArgumentException();
+		}
+
+		//sets the data fields using the parsed values
+		this.date=date;
+		this.zip=zip;
+		setKey(key);
+		this.personsInjured=personsInjured;
+		this.personsKilled=personsKilled;
+		this.pedestriansInjured=pedestriansInjured;
+		this.pedestriansKilled=pedestriansKilled;
+		this.cyclistsInjured=cyclistsInjured;
+		this.cyclistsKilled=cyclistsKilled;
+		this.motoristsInjured=motoristsInjured;
+		this.motoristsKilled=motoristsKilled;
+
+		//checks that the parsed values are valid
+		validate();
+		this.sortKey=sortKey(zip, date);
+	}
+
+	/**
+	 * This method packs a zip code and a date into a single long that sorts like the zip code
+	 * and then the date (zip code in the upper 32 bits, date as yyyymmdd in the lower 32 bits)
+	 *
+	 * @param int code of the zip code
+	 * @param Date date
+	 * @return sort key
+	 */
+	static long sortKey(int zip, Date date) {
+		return (long) zip<<32 | date.toPacked();
+	}
+
+	/**
+	 * This method stores a key as a number if it is a number that can be turned back into the
+	 * same String, and as a String otherwise
+	 *
+	 * @param String key
+	 */
+	private void setKey(String key) {
+		this.number=key==null ? TEXT_KEY : numericKey(key);
+		this.key=number==TEXT_KEY ? key : null;
+	}
+
+	/**
+	 * Converts a key to a long if it is a number that can be turned back into the same String
+	 *
+	 * @param String key
+	 * @return key as a long, or TEXT_KEY if the key is not such a number
+	 */
+	static long numericKey(String key) {
+
+		//leading zeros and signs would be lost when the number is turned back into a String
+		if (key.length()==0 || key.length()>18 || key.charAt(0)=='0' && key.length()>1) {
+			return TEXT_KEY;
+		}
+
+		long value=0;
+		for (int i=0; i<key.length(); i++) {
+			char c=key.charAt(i);
+			if (c<'0' || c>'9') {
+				return TEXT_KEY;
+			}
+			value=value*10+(c-'0');
+		}
+		return value;
+	}
+
+	/**
+	 * This method checks the zip, the number of people injured/killed, and the key of this collision
+	 *
+	 * @throws IllegalArgumentException zip is not valid, injured/killed are negative numbers, or key is empty
+	 */
+	private void validate() throws IllegalArgumentException {
+
+		//throws exception if zip is not valid (exactly five digits)
+		if (zip<0 || zip>=ZipCodes.COUNT) {
 			throw new IllegalArgumentException();
 		}
 
@@ -67,7 +188,7 @@ public class Collision implements Comparable<Collision> {
 		}
 
 		//key cannot be empty
-		if (key=="" || key==null) {
+		if (number==TEXT_KEY && (key==null || key.length()==0)) {
 			throw new IllegalArgumentException();
 		}
 	}
@@ -78,6 +199,15 @@ public class Collision implements Comparable<Collision> {
 	 * @return zip code
 	 */
 	public String getZip() {
+		return ZipCodes.name(this.zip);
+	}
+
+	/**
+	 * This method is a getter for the ZipCodes code of the zip code
+	 *
+	 * @return code of the zip code
+	 */
+	int getZipCode() {
 		return this.zip;
 	}
 
@@ -96,7 +226,25 @@ public class Collision implements Comparable<Collision> {
 	 * @return key
 	 */
 	public String getKey() {
-		return this.key;
+		return this.key!=null ? this.key : Long.toString(this.number);
+	}
+
+	/**
+	 * This method is a getter for the packed zip code and date (see sortKey)
+	 *
+	 * @return sort key
+	 */
+	long getSortKey() {
+		return this.sortKey;
+	}
+
+	/**
+	 * This method is a getter for the key as a number
+	 *
+	 * @return key as a long, or TEXT_KEY if the key is not stored as a number
+	 */
+	long getKeyNumber() {
+		return this.number;
 	}
 
 	/**
@@ -185,16 +333,26 @@ public class Collision implements Comparable<Collision> {
 			throw new NullPointerException();
 		}
 
-		//compares zip and then date (if zip is same) and then key (if date is same)
-		if (this.getZip().equals(c.getZip())) {
-			if (this.getDate().equals(c.getDate())) {
-				return this.getKey().compareToIgnoreCase(c.getKey());
-			} else {
-				return this.getDate().compareTo(c.getDate());
-			}
-		} else {
-			return this.getZip().compareTo(c.getZip());
+		//compares zip and date (packed into the sort key) and then key (if both are the same)
+		if (this.sortKey!=c.sortKey) {
+			return this.sortKey<c.sortKey ? -1 : 1;
+		}
+		return compareKeys(this, c);
+	}
+
+	/**
+	 * This method compares the keys of two collisions: numeric keys are compared as numbers and
+	 * come before all other keys, which are compared ignoring case
+	 *
+	 * @param Collision object a
+	 * @param Collision object b
+	 * @return an int based on respective comparisons
+	 */
+	static int compareKeys(Collision a, Collision b) {
+		if (a.key==null) {
+			return b.key==null ? Long.compare(a.number, b.number) : -1;
 		}
+		return b.key==null ? 1 : a.key.compareToIgnoreCase(b.key);
 	}
 
 	/**
@@ -224,9 +382,27 @@ public class Collision implements Comparable<Collision> {
 		//cast object
 		Collision other=(Collision) o;
 
-		//use compare method to observe equality
-		if (this.compareTo(other)==0) {
-			return true;
-		} return false;
+		//same zip, date, and key (ignoring case) means equal
+		return this.sortKey==other.sortKey && compareKeys(this, other)==0;
+	}
+
+	/**
+	 * This method overrides the hashCode() method so that equal collisions (see equals) have the
+	 * same hash code
+	 *
+	 * @return hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash=Long.hashCode(sortKey);
+		if (key==null) {
+			return hash*31+Long.hashCode(number);
+		}
+
+		//folds the case of every character the same way as compareToIgnoreCase
+		for (int i=0; i<key.length(); i++) {
+			hash=hash*31+Character.toLowerCase(Character.toUpperCase(key.charAt(i)));
+		}
+		return hash;
 	}
-}
\ No newline at end of file
+}
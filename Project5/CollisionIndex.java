@@ -0,0 +1,77 @@
+package project5;
+
+//imports proper packages needed
+import java.util.List;
+
+/**
+ * This interface is implemented by the ordered structures that can hold collisions. The
+ * collisions are kept in the order of Collision.compareTo (zip code, date, key), so that the
+ * collisions of a zip code and date range are next to each other. Equal collisions can be
+ * added more than once, and remove takes out one of them.
+ *
+ * Implementations: CollisionsData (AVL tree with subtree totals), RedBlackCollisionIndex,
+ * BPlusTreeCollisionIndex, and SortedArrayCollisionIndex.
+ *
+ * @author Nanako Chung
+ */
+public interface CollisionIndex extends Iterable<Collision> {
+
+	/**
+	 * Adds a collision to the index. If item is null, the index does not change.
+	 *
+	 * @param Collision item to be added
+	 */
+	void add(Collision item);
+
+	/**
+	 * Adds a batch of collisions to the index (nulls are ignored)
+	 *
+	 * @param Iterable collisions to be added (in any order)
+	 */
+	void addAll(Iterable<Collision> items);
+
+	/**
+	 * Removes a collision that is equal to the target from the index
+	 *
+	 * @param Collision target
+	 * @return true if a collision was found and removed
+	 */
+	boolean remove(Collision target);
+
+	/**
+	 * Determines the number of collisions in the index
+	 *
+	 * @return number of collisions
+	 */
+	int size();
+
+	/**
+	 * Sums the number of collisions and the killed/injured counts for a zip code and date range
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return report with the totals
+	 */
+	CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd);
+
+	/**
+	 * Answers a batch of report queries, one getCollisionReport call per query (every query is
+	 * already O(log n), so a merged traversal of the batch would not be faster)
+	 *
+	 * @param List of queries
+	 * @return array of reports in the same order as the queries
+	 * @throws IllegalArgumentException if a query is null
+	 */
+	default CollisionReport[] getCollisionReports(List<CollisionQuery> queries) throws IllegalArgumentException {
+		CollisionReport[] reports=new CollisionReport[queries.size()];
+		int i=0;
+		for (CollisionQuery query : queries) {
+			if (query==null) {
+				throw new IllegalArgumentException("query cannot be null");
+			}
+			reports[i++]=getCollisionReport(query.getZip(), query.getDateBegin(), query.getDateEnd());
+		}
+		return reports;
+	}
+}
@@ -32,35 +32,20 @@ public class CollisionInfo {
 				//create a new File object based on the file name inputted
 				File file = new File(args[0]);
 
-				//use Scanner class to "scan" and read the data from the file line by line
-				Scanner reading = new Scanner(file);
-
-				//ignore header
-				String line = reading.nextLine();
-
-				//reads all the lines of file
-				while (reading.hasNextLine()) {
-					line = reading.nextLine();
-
-					//if the line is empty, skip it
-					if (line.length()==0) {
-						continue;
-					}
-
-					//calls splitCSVLine method to properly separate csv values
-					//stores them into ArrayList of Strings
-					ArrayList<String> data=splitCSVLine(line);
-
-					//if any input is invalid, skip the line
-					try { 
-						//creates a new Collision object with the line info
-						Collision collision = new Collision(data);
-
-						//add to CollisionsData object
-						collisions.add(collision);
-					} catch (Exception ex) {
-						continue;
-					}
+				//memory-maps the file and loads all valid rows in parallel
+				if (!file.exists()) {
+					throw new FileNotFoundException();
+				}
+				if (args.length>1 && args[1].equals("--follow")) {
+
+					//keeps adding rows that are appended to the file while the program runs
+					CollisionsFollower follower=CollisionsFollower.open(file);
+					collisions=follower.getCollisions();
+					Thread thread=new Thread(follower, "collisions-follower");
+					thread.setDaemon(true);
+					thread.start();
+				} else {
+					collisions=load(file);
 				}
 
 				//create a new Scanner object to read in the following data input
@@ -117,6 +102,38 @@ public class CollisionInfo {
 		}
 	}
 
+	/**
+	 * Loads the collisions of the input file. A binary snapshot of the loaded collisions is
+	 * saved next to the input file (with the extension .snapshot) and used instead of the
+	 * input file on the next run, as long as the input file has not changed since.
+	 *
+	 * @param File input file
+	 * @return CollisionsData object with all valid rows of the input file
+	 * @throws IOException if the input file cannot be read
+	 */
+	private static CollisionsData load(File file) throws IOException {
+		File snapshot=new File(file.getPath()+".snapshot");
+
+		//uses the snapshot if it is newer than the input file
+		if (snapshot.exists() && snapshot.lastModified()>=file.lastModified()) {
+			try {
+				return CollisionsSnapshot.read(snapshot);
+			} catch (IOException ex) {
+				System.err.println("Warning: cannot use "+snapshot+" ("+ex.getMessage()+")");
+			}
+		}
+
+		CollisionsData collisions=CollisionsLoader.loadParallel(file);
+
+		//a missing snapshot only makes the next start slower
+		try {
+			CollisionsSnapshot.write(collisions, snapshot);
+		} catch (IOException ex) {
+			System.err.println("Warning: cannot save "+snapshot+" ("+ex.getMessage()+")");
+		}
+		return collisions;
+	}
+
 	/**
 	 * Splits the given line of a CSV file according to commas and double quotes
 	 * (double quotes are used to surround multi-word entries so that they may contain commas)
@@ -0,0 +1,102 @@
+package project5;
+
+/**
+ * This class represents a single report query: a zip code and an inclusive range of dates.
+ * Queries are ordered by zip code, then start date, then end date.
+ *
+ * @author Nanako Chung
+ */
+public class CollisionQuery implements Comparable<CollisionQuery> {
+
+	//zip code and date range of the query
+	private final String zip;
+	private final Date dateBegin;
+	private final Date dateEnd;
+
+	/**
+	 * This constructor creates a query for the given zip code and date range
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @throws IllegalArgumentException if any parameter is null
+	 */
+	public CollisionQuery(String zip, Date dateBegin, Date dateEnd) throws IllegalArgumentException {
+		if (zip==null || dateBegin==null || dateEnd==null) {
+			throw new IllegalArgumentException("zip code and dates cannot be null");
+		}
+		this.zip=zip;
+		this.dateBegin=dateBegin;
+		this.dateEnd=dateEnd;
+	}
+
+	/**
+	 * Returns the zip code of the query
+	 *
+	 * @return zip code
+	 */
+	public String getZip() {
+		return zip;
+	}
+
+	/**
+	 * Returns the start date of the query
+	 *
+	 * @return start date
+	 */
+	public Date getDateBegin() {
+		return dateBegin;
+	}
+
+	/**
+	 * Returns the end date of the query
+	 *
+	 * @return end date
+	 */
+	public Date getDateEnd() {
+		return dateEnd;
+	}
+
+	/**
+	 * Compares two queries by zip code, start date, and end date
+	 *
+	 * @param CollisionQuery other query
+	 * @return an int based on respective comparisons
+	 */
+	@Override
+	public int compareTo(CollisionQuery other) {
+		int cmp=zip.compareTo(other.zip);
+		if (cmp!=0) {
+			return cmp;
+		}
+		cmp=dateBegin.compareTo(other.dateBegin);
+		if (cmp!=0) {
+			return cmp;
+		}
+		return dateEnd.compareTo(other.dateEnd);
+	}
+
+	/**
+	 * Checks if two queries have the same zip code and date range
+	 *
+	 * @param Object o
+	 * @return true if both queries are equal
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof CollisionQuery)) {
+			return false;
+		}
+		return compareTo((CollisionQuery) o)==0;
+	}
+
+	/**
+	 * Calculates the hash code of the query
+	 *
+	 * @return hash code
+	 */
+	@Override
+	public int hashCode() {
+		return (zip.hashCode()*31+dateBegin.hashCode())*31+dateEnd.hashCode();
+	}
+}
@@ -0,0 +1,318 @@
+package project5;
+
+//imports proper packages needed
+import java.io.IOException;
+
+/**
+ * This class holds the result of a report query: the number of collisions for a zip code
+ * within a date range and the totals of the killed/injured counts of those collisions, as
+ * primitive fields. The totals are summed directly into the report while the query runs, so a
+ * query allocates nothing but the report itself. The report can be written in the text format
+ * of CollisionsData.getReport to any Appendable without building intermediate Strings.
+ *
+ * @author Nanako Chung
+ */
+public class CollisionReport {
+
+	//zip code and date range the report covers
+	private final String zip;
+	private final Date dateBegin;
+	private final Date dateEnd;
+
+	//number of collisions and killed/injured totals (only changed while the query runs)
+	private int count;
+	private int personsKilled;
+	private int pedestriansKilled;
+	private int cyclistsKilled;
+	private int motoristsKilled;
+	private int personsInjured;
+	private int pedestriansInjured;
+	private int cyclistsInjured;
+	private int motoristsInjured;
+
+	/**
+	 * This constructor creates an empty report (no collisions) for the given zip code and date range
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 */
+	CollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		this.zip=zip;
+		this.dateBegin=dateBegin;
+		this.dateEnd=dateEnd;
+	}
+
+	/**
+	 * This constructor creates a report from totals indexed by CollisionsData.COUNT, ...,
+	 * CollisionsData.MOTORISTS_INJURED
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @param int[] totals
+	 */
+	CollisionReport(String zip, Date dateBegin, Date dateEnd, int[] totals) {
+		this.zip=zip;
+		this.dateBegin=dateBegin;
+		this.dateEnd=dateEnd;
+		this.count=totals[CollisionsData.COUNT];
+		this.personsKilled=totals[CollisionsData.PERSONS_KILLED];
+		this.pedestriansKilled=totals[CollisionsData.PEDESTRIANS_KILLED];
+		this.cyclistsKilled=totals[CollisionsData.CYCLISTS_KILLED];
+		this.motoristsKilled=totals[CollisionsData.MOTORISTS_KILLED];
+		this.personsInjured=totals[CollisionsData.PERSONS_INJURED];
+		this.pedestriansInjured=totals[CollisionsData.PEDESTRIANS_INJURED];
+		this.cyclistsInjured=totals[CollisionsData.CYCLISTS_INJURED];
+		this.motoristsInjured=totals[CollisionsData.MOTORISTS_INJURED];
+	}
+
+	/**
+	 * Adds one collision to the report
+	 *
+	 * @param Collision object c
+	 */
+	void add(Collision c) {
+		count++;
+		personsKilled+=c.getPersonsKilled();
+		pedestriansKilled+=c.getPedestriansKilled();
+		cyclistsKilled+=c.getCyclistsKilled();
+		motoristsKilled+=c.getMotoristsKilled();
+		personsInjured+=c.getPersonsInjured();
+		pedestriansInjured+=c.getPedestriansInjured();
+		cyclistsInjured+=c.getCyclistsInjured();
+		motoristsInjured+=c.getMotoristsInjured();
+	}
+
+	/**
+	 * Adds the totals of several collisions to the report
+	 *
+	 * @param int number of collisions
+	 * @param int persons killed
+	 * @param int pedestrians killed
+	 * @param int cyclists killed
+	 * @param int motorists killed
+	 * @param int persons injured
+	 * @param int pedestrians injured
+	 * @param int cyclists injured
+	 * @param int motorists injured
+	 */
+	void add(int count, int personsKilled, int pedestriansKilled, int cyclistsKilled, int motoristsKilled,
+			int personsInjured, int pedestriansInjured, int cyclistsInjured, int motoristsInjured) {
+		this.count+=count;
+		this.personsKilled+=personsKilled;
+		this.pedestriansKilled+=pedestriansKilled;
+		this.cyclistsKilled+=cyclistsKilled;
+		this.motoristsKilled+=motoristsKilled;
+		this.personsInjured+=personsInjured;
+		this.pedestriansInjured+=pedestriansInjured;
+		this.cyclistsInjured+=cyclistsInjured;
+		this.motoristsInjured+=motoristsInjured;
+	}
+
+	/**
+	 * Returns the zip code of the report
+	 *
+	 * @return zip code, or null if the report covers all zip codes
+	 */
+	public String getZip() {
+		return zip;
+	}
+
+	/**
+	 * Returns the start date of the report
+	 *
+	 * @return start date
+	 */
+	public Date getDateBegin() {
+		return dateBegin;
+	}
+
+	/**
+	 * Returns the end date of the report
+	 *
+	 * @return end date
+	 */
+	public Date getDateEnd() {
+		return dateEnd;
+	}
+
+	/**
+	 * Returns the number of collisions
+	 *
+	 * @return number of collisions
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the total number of persons killed
+	 *
+	 * @return persons killed
+	 */
+	public int getPersonsKilled() {
+		return personsKilled;
+	}
+
+	/**
+	 * Returns the total number of pedestrians killed
+	 *
+	 * @return pedestrians killed
+	 */
+	public int getPedestriansKilled() {
+		return pedestriansKilled;
+	}
+
+	/**
+	 * Returns the total number of cyclists killed
+	 *
+	 * @return cyclists killed
+	 */
+	public int getCyclistsKilled() {
+		return cyclistsKilled;
+	}
+
+	/**
+	 * Returns the total number of motorists killed
+	 *
+	 * @return motorists killed
+	 */
+	public int getMotoristsKilled() {
+		return motoristsKilled;
+	}
+
+	/**
+	 * Returns the total number of persons injured
+	 *
+	 * @return persons injured
+	 */
+	public int getPersonsInjured() {
+		return personsInjured;
+	}
+
+	/**
+	 * Returns the total number of pedestrians injured
+	 *
+	 * @return pedestrians injured
+	 */
+	public int getPedestriansInjured() {
+		return pedestriansInjured;
+	}
+
+	/**
+	 * Returns the total number of cyclists injured
+	 *
+	 * @return cyclists injured
+	 */
+	public int getCyclistsInjured() {
+		return cyclistsInjured;
+	}
+
+	/**
+	 * Returns the total number of motorists injured
+	 *
+	 * @return motorists injured
+	 */
+	public int getMotoristsInjured() {
+		return motoristsInjured;
+	}
+
+	/**
+	 * Writes the report in the text format of CollisionsData.getReport
+	 *
+	 * @param Appendable destination of the text (for example a reused StringBuilder or a Writer)
+	 * @throws IOException if the destination cannot be written
+	 */
+	public void appendTo(Appendable out) throws IOException {
+		out.append("\nMotor Vehicle Collisions for ");
+		if (zip==null) {
+			out.append("all zipcodes (");
+		} else {
+			out.append("zipcode ").append(zip).append(" (");
+		}
+		appendDate(out, dateBegin);
+		out.append(" - ");
+		appendDate(out, dateEnd);
+		out.append(")\n====================================================================\n");
+		out.append("Total number of collisions: ");
+		appendInt(out, count);
+		out.append("\nNumber of fatalities: ");
+		appendInt(out, personsKilled);
+		out.append("\n         pedestrians: ");
+		appendInt(out, pedestriansKilled);
+		out.append("\n            cyclists: ");
+		appendInt(out, cyclistsKilled);
+		out.append("\n           motorists: ");
+		appendInt(out, motoristsKilled);
+		out.append("\nNumber of injuries: ");
+		appendInt(out, personsInjured);
+		out.append("\n       pedestrians: ");
+		appendInt(out, pedestriansInjured);
+		out.append("\n          cyclists: ");
+		appendInt(out, cyclistsInjured);
+		out.append("\n         motorists: ");
+		appendInt(out, motoristsInjured);
+	}
+
+	/**
+	 * Formats the report the same way as CollisionsData.getReport
+	 *
+	 * @return formatted String of report
+	 */
+	@Override
+	public String toString() {
+		StringBuilder rep=new StringBuilder(400);
+		try {
+			appendTo(rep);
+		} catch (IOException ex) {
+
+			//a StringBuilder never throws
+			throw new AssertionError(ex);
+		}
+		return rep.toString();
+	}
+
+	/**
+	 * Writes a date as MM/DD/YYYY (the format of Date.toString) without creating a String
+	 *
+	 * @param Appendable destination of the text
+	 * @param Date date
+	 * @throws IOException if the destination cannot be written
+	 */
+	private static void appendDate(Appendable out, Date date) throws IOException {
+		int month=date.getMonth();
+		int day=date.getDay();
+		out.append((char) ('0'+month/10)).append((char) ('0'+month%10)).append('/');
+		out.append((char) ('0'+day/10)).append((char) ('0'+day%10)).append('/');
+		appendInt(out, date.getYear());
+	}
+
+	/**
+	 * Writes the decimal digits of an int without creating a String
+	 *
+	 * @param Appendable destination of the text
+	 * @param int value
+	 * @throws IOException if the destination cannot be written
+	 */
+	private static void appendInt(Appendable out, int value) throws IOException {
+		if (value<0) {
+			out.append('-');
+
+			//the digits of Integer.MIN_VALUE are written one at a time
+			if (value==Integer.MIN_VALUE) {
+				out.append('2');
+				value=-147483648;
+			}
+			value=-value;
+		}
+		int divisor=1;
+		while (divisor<=value/10) {
+			divisor*=10;
+		}
+		while (divisor>0) {
+			out.append((char) ('0'+value/divisor%10));
+			divisor/=10;
+		}
+	}
+}
@@ -0,0 +1,341 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+
+/**
+ * This class is responsible for storing collision records in columns of primitive arrays
+ * instead of one Collision object (and one tree node) per row: zip codes and dates (as day
+ * slots, see Date.toDaySlot) are ints, the eight injured/killed counts are shorts, and numeric keys are
+ * longs. Rows are kept sorted by zip and date, so that reports are answered with two binary
+ * searches and a scan of the matching rows. Reports can be asked for by several threads at once
+ * (the first one sorts the rows), but adding rows must not happen at the same time as anything else.
+ *
+ * @author Nanako Chung
+ */
+public class CollisionStore {
+
+	//positions of the injured/killed counts in the counts array (same order as the input file)
+	private static final int PERSONS_INJURED=0;
+	private static final int PERSONS_KILLED=1;
+	private static final int PEDESTRIANS_INJURED=2;
+	private static final int PEDESTRIANS_KILLED=3;
+	private static final int CYCLISTS_INJURED=4;
+	private static final int CYCLISTS_KILLED=5;
+	private static final int MOTORISTS_INJURED=6;
+	private static final int MOTORISTS_KILLED=7;
+
+	//day slot of 01/01/1900 (earliest valid Date)
+	private static final int FIRST_DAY=new Date(1900, 1, 1).toDaySlot();
+
+	//marks a key that is not a number (the key is then stored in otherKeys)
+	private static final long OTHER_KEY=Collision.TEXT_KEY;
+
+	//columns of the store
+	private int[] zips;
+	private int[] days;
+	private short[][] counts;
+	private long[] keys;
+	private HashMap<Integer, String> otherKeys;
+
+	//number of rows and whether the rows are currently sorted (volatile, so that a thread that
+	//sees the rows as sorted also sees the columns written by the thread that sorted them)
+	private int size;
+	private volatile boolean sorted;
+
+	/**
+	 * This is a default constructor that creates an empty store.
+	 */
+	public CollisionStore() {
+		this(1024);
+	}
+
+	/**
+	 * This constructor creates an empty store with room for the given number of rows.
+	 *
+	 * @param int initial capacity
+	 */
+	public CollisionStore(int capacity) {
+
+		//sets to a small capacity if a negative or 0 capacity is entered
+		if (capacity<=0) {
+			capacity=16;
+		}
+
+		this.zips=new int[capacity];
+		this.days=new int[capacity];
+		this.counts=new short[8][capacity];
+		this.keys=new long[capacity];
+		this.otherKeys=new HashMap<Integer, String>();
+		this.size=0;
+		this.sorted=true;
+	}
+
+	/**
+	 * Adds a collision to the store. If item is null, the store does not change.
+	 *
+	 * @param Collision item to be added
+	 * @throws IllegalArgumentException if an injured/killed count does not fit in a short
+	 */
+	public void add(Collision item) throws IllegalArgumentException {
+
+		//if item is empty, return nothing
+		if (item==null) {
+			return;
+		}
+
+		//grows the columns when they are full
+		if (size==zips.length) {
+			resize(size*2);
+		}
+
+		//writes the row
+		int row=size;
+		zips[row]=item.getZipCode();
+		days[row]=item.getDate().toDaySlot();
+		counts[PERSONS_INJURED][row]=toShort(item.getPersonsInjured());
+		counts[PERSONS_KILLED][row]=toShort(item.getPersonsKilled());
+		counts[PEDESTRIANS_INJURED][row]=toShort(item.getPedestriansInjured());
+		counts[PEDESTRIANS_KILLED][row]=toShort(item.getPedestriansKilled());
+		counts[CYCLISTS_INJURED][row]=toShort(item.getCyclistsInjured());
+		counts[CYCLISTS_KILLED][row]=toShort(item.getCyclistsKilled());
+		counts[MOTORISTS_INJURED][row]=toShort(item.getMotoristsInjured());
+		counts[MOTORISTS_KILLED][row]=toShort(item.getMotoristsKilled());
+		keys[row]=item.getKeyNumber();
+		if (keys[row]==OTHER_KEY) {
+			otherKeys.put(row, item.getKey());
+		}
+		size++;
+
+		//the row is still sorted if it comes after the previous row
+		if (row>0 && compareRows(row-1, row)>0) {
+			sorted=false;
+		}
+	}
+
+	/**
+	 * Determines the number of rows in this store.
+	 *
+	 * @return number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * This method is responsible for properly displaying the report of collisions (in the same
+	 * format as CollisionsData.getReport)
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return formatted String of report
+	 */
+	public String getReport(String zip, Date dateBegin, Date dateEnd) {
+		if (!sorted) {
+			sort();
+		}
+
+		//no row can have a zip code that is not five digits
+		int[] totals=new int[CollisionsData.TOTALS];
+		int zipCode=CollisionsData.queryZip(zip);
+		if (zipCode<0) {
+			return CollisionsData.formatReport(zip, dateBegin, dateEnd, totals);
+		}
+
+		//finds the first row at or after (zip, dateBegin) and the first row after (zip, dateEnd)
+		int first=lowerBound(zipCode, dateBegin.toDaySlot());
+		int last=lowerBound(zipCode, dateEnd.toDaySlot()+1);
+
+		//sums info from every row in between
+		totals[CollisionsData.COUNT]=Math.max(0, last-first);
+		for (int row=first; row<last; row++) {
+			totals[CollisionsData.PERSONS_KILLED]+=counts[PERSONS_KILLED][row];
+			totals[CollisionsData.PEDESTRIANS_KILLED]+=counts[PEDESTRIANS_KILLED][row];
+			totals[CollisionsData.CYCLISTS_KILLED]+=counts[CYCLISTS_KILLED][row];
+			totals[CollisionsData.MOTORISTS_KILLED]+=counts[MOTORISTS_KILLED][row];
+			totals[CollisionsData.PERSONS_INJURED]+=counts[PERSONS_INJURED][row];
+			totals[CollisionsData.PEDESTRIANS_INJURED]+=counts[PEDESTRIANS_INJURED][row];
+			totals[CollisionsData.CYCLISTS_INJURED]+=counts[CYCLISTS_INJURED][row];
+			totals[CollisionsData.MOTORISTS_INJURED]+=counts[MOTORISTS_INJURED][row];
+		}
+		return CollisionsData.formatReport(zip, dateBegin, dateEnd, totals);
+	}
+
+	/**
+	 * Calculates how many bytes of memory the columns of this store use per row (including
+	 * unused capacity and keys that are not numbers).
+	 *
+	 * @return bytes per row
+	 */
+	public double bytesPerRow() {
+		if (size==0) {
+			return 0;
+		}
+
+		//4 bytes per zip and date, 2 bytes per count, 8 bytes per key
+		long bytes=(long) zips.length*(4+4+8*2+8);
+
+		//about 80 bytes per entry of the HashMap with its String
+		for (String key : otherKeys.values()) {
+			bytes+=80+2L*key.length();
+		}
+		return (double) bytes/size;
+	}
+
+	/**
+	 * Binary search for the first row that is not before (zip, day)
+	 *
+	 * @param int zip code
+	 * @param int day slot (see Date.toDaySlot)
+	 * @return index of the row, or size if every row is before (zip, day)
+	 */
+	private int lowerBound(int zip, int day) {
+		int low=0;
+		int high=size;
+		while (low<high) {
+			int mid=(low+high)>>>1;
+			if (zips[mid]<zip || zips[mid]==zip && days[mid]<day) {
+				low=mid+1;
+			} else {
+				high=mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Sorts the rows by zip, date, and key if rows were added out of order. The row numbers are
+	 * packed into a long together with the zip and date, so that a single primitive sort finds
+	 * the new order of the rows. Only one thread sorts, the others wait until it is done.
+	 */
+	private synchronized void sort() {
+		if (sorted) {
+			return;
+		}
+
+		//zip (17 bits), day slot since 01/01/1900 (16 bits), and row (31 bits)
+		long[] order=new long[size];
+		for (int row=0; row<size; row++) {
+			long packed=(long) zips[row]<<47 | (long) (days[row]-FIRST_DAY)<<31 | row;
+
+			//flipping the sign bit makes the signed sort follow the unsigned order
+			order[row]=packed^Long.MIN_VALUE;
+		}
+		Arrays.sort(order);
+
+		//rows with the same zip and date are ordered by key
+		int start=0;
+		for (int i=1; i<=size; i++) {
+			if (i==size || (order[i]^order[start])>>>31!=0) {
+				if (i-start>1) {
+					sortByKey(order, start, i);
+				}
+				start=i;
+			}
+		}
+
+		//moves every column into the new order
+		int[] newZips=new int[zips.length];
+		int[] newDays=new int[days.length];
+		short[][] newCounts=new short[8][zips.length];
+		long[] newKeys=new long[keys.length];
+		HashMap<Integer, String> newOtherKeys=new HashMap<Integer, String>();
+		for (int i=0; i<size; i++) {
+			int row=(int) (order[i]&Integer.MAX_VALUE);
+			newZips[i]=zips[row];
+			newDays[i]=days[row];
+			for (int c=0; c<8; c++) {
+				newCounts[c][i]=counts[c][row];
+			}
+			newKeys[i]=keys[row];
+			if (keys[row]==OTHER_KEY) {
+				newOtherKeys.put(i, otherKeys.get(row));
+			}
+		}
+		zips=newZips;
+		days=newDays;
+		counts=newCounts;
+		keys=newKeys;
+		otherKeys=newOtherKeys;
+		sorted=true;
+	}
+
+	/**
+	 * Sorts a range of packed rows (all with the same zip and date) by key
+	 *
+	 * @param long[] packed rows
+	 * @param int start of the range
+	 * @param int end of the range (exclusive)
+	 */
+	private void sortByKey(long[] order, int start, int end) {
+		Integer[] rows=new Integer[end-start];
+		for (int i=start; i<end; i++) {
+			rows[i-start]=(int) (order[i]&Integer.MAX_VALUE);
+		}
+		Arrays.sort(rows, (a, b) -> compareKeys(a, b));
+		for (int i=start; i<end; i++) {
+			order[i]=order[i]&~(long) Integer.MAX_VALUE | rows[i-start];
+		}
+	}
+
+	/**
+	 * Compares two rows by zip, date, and key (the order used by Collision.compareTo)
+	 *
+	 * @param int first row
+	 * @param int second row
+	 * @return an int based on respective comparisons
+	 */
+	private int compareRows(int a, int b) {
+		if (zips[a]!=zips[b]) {
+			return Integer.compare(zips[a], zips[b]);
+		}
+		if (days[a]!=days[b]) {
+			return Integer.compare(days[a], days[b]);
+		}
+		return compareKeys(a, b);
+	}
+
+	/**
+	 * Compares the keys of two rows (like Collision.compareTo: numeric keys as numbers and before
+	 * all other keys, which are compared ignoring case)
+	 *
+	 * @param int first row
+	 * @param int second row
+	 * @return an int based on respective comparisons
+	 */
+	private int compareKeys(int a, int b) {
+		if (keys[a]!=OTHER_KEY) {
+			return keys[b]!=OTHER_KEY ? Long.compare(keys[a], keys[b]) : -1;
+		}
+		return keys[b]!=OTHER_KEY ? 1 : otherKeys.get(a).compareToIgnoreCase(otherKeys.get(b));
+	}
+
+	/**
+	 * Changes the capacity of every column
+	 *
+	 * @param int new capacity
+	 */
+	private void resize(int capacity) {
+		zips=Arrays.copyOf(zips, capacity);
+		days=Arrays.copyOf(days, capacity);
+		for (int c=0; c<8; c++) {
+			counts[c]=Arrays.copyOf(counts[c], capacity);
+		}
+		keys=Arrays.copyOf(keys, capacity);
+	}
+
+	/**
+	 * Converts an injured/killed count to a short
+	 *
+	 * @param int count
+	 * @return count as a short
+	 * @throws IllegalArgumentException if the count does not fit in a short
+	 */
+	private static short toShort(int count) throws IllegalArgumentException {
+		if (count>Short.MAX_VALUE) {
+			throw new IllegalArgumentException("count "+count+" is too large");
+		}
+		return (short) count;
+	}
+}
@@ -0,0 +1,977 @@
+package project5;
+
+//imports proper packages needed
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * This class is a runnable program that measures the performance of the collision data
+ * structures on randomly generated collisions. The first command line argument names the
+ * benchmark, the remaining arguments are the numbers of collisions to generate
+ * (for example: java project5.CollisionsBenchmark bulk 1000000 10000000).
+ *
+ * Large sizes need a large heap (-Xmx).
+ *
+ * @author Nanako Chung
+ */
+public class CollisionsBenchmark {
+
+	//number of distinct zip codes used for the generated collisions
+	private static final int ZIPS=200;
+
+	//number of times each measurement is repeated (the best time is reported)
+	private static final int ROUNDS=3;
+
+	/**
+	 * This is the main method
+	 */
+	public static void main(String[] args) {
+
+		//prints error message if there is no command line input
+		if (args.length==0) {
+			System.err.println("Error: missing name of the benchmark");
+			return;
+		}
+
+		//sizes of the data sets (1M and 10M collisions by default)
+		int[] sizes={1000000, 10000000};
+		if (args.length>1) {
+			sizes=new int[args.length-1];
+			for (int i=1; i<args.length; i++) {
+				sizes[i-1]=Integer.parseInt(args[i]);
+			}
+		}
+
+		for (int size : sizes) {
+			if (args[0].equals("bulk")) {
+				benchmarkBulk(size);
+			} else if (args[0].equals("memory")) {
+				benchmarkMemory(size);
+			} else if (args[0].equals("range")) {
+				benchmarkRange(size);
+			} else if (args[0].equals("snapshot")) {
+				benchmarkSnapshot(size);
+			} else if (args[0].equals("date")) {
+				benchmarkDate(size);
+			} else if (args[0].equals("report")) {
+				benchmarkReport(size);
+			} else if (args[0].equals("rollup")) {
+				benchmarkRollup(size);
+			} else if (args[0].equals("citywide")) {
+				benchmarkCitywide(size);
+			} else if (args[0].equals("compare")) {
+				benchmarkCompare(size);
+			} else if (args[0].equals("insert")) {
+				benchmarkInsert(size);
+			} else if (args[0].equals("index")) {
+				benchmarkIndex(size);
+			} else if (args[0].equals("bst")) {
+				benchmarkBST(size);
+			} else if (args[0].equals("concurrent")) {
+				benchmarkConcurrent(size);
+			} else if (args[0].equals("dump")) {
+				benchmarkDump(size);
+			} else if (args[0].equals("arena")) {
+				benchmarkArena(size);
+			} else {
+				System.err.println("Error: unknown benchmark "+args[0]);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Compares the array-backed trees against the pointer-based ones: ArenaCollisionIndex against
+	 * CollisionsData and BST_Arena against BST_AVL, each arena tree also after compact(). Measures
+	 * adding in random order, memory used by the tree itself (the items are shared), a full
+	 * traversal, lookups (reports for one year, or contains), and removing and adding again
+	 *
+	 * @param int number of elements
+	 */
+	private static void benchmarkArena(int size) {
+		final Collision[] collisions=randomCollisions(size, 42);
+		final int queries=100000;
+		final int churn=1000;
+		final String[] zips=new String[ZIPS];
+		for (int i=0; i<ZIPS; i++) {
+			zips[i]=String.format("%05d", 10001+i*7);
+		}
+		final Date begin=new Date(2014, 6, 1);
+		final Date year=new Date(2015, 5, 31);
+
+		String[] names={"CollisionsData", "ArenaCollisionIndex", "ArenaCollisionIndex (compact)"};
+		List<Supplier<CollisionIndex>> factories=Arrays.asList(CollisionsData::new, ArenaCollisionIndex::new, ArenaCollisionIndex::new);
+		for (int n=0; n<names.length; n++) {
+			final Supplier<CollisionIndex> factory=factories.get(n);
+			final boolean compact=n==2;
+			report(names[n]+": add", size, time(() -> {
+				CollisionIndex index=factory.get();
+				for (Collision c : collisions) {
+					index.add(c);
+				}
+				if (compact) {
+					((ArenaCollisionIndex) index).compact();
+				}
+			}));
+
+			long before=usedMemory();
+			final CollisionIndex index=factory.get();
+			for (Collision c : collisions) {
+				index.add(c);
+			}
+			if (compact) {
+				((ArenaCollisionIndex) index).compact();
+			}
+			long bytes=usedMemory()-before;
+			System.out.println(String.format("%-45s n=%-10d %10.1f bytes/row", names[n]+": memory", size, (double) bytes/size));
+
+			report(names[n]+": iterate", size, time(() -> {
+				int count=0;
+				for (Collision c : index) {
+					count+=c.getPersonsInjured();
+				}
+				if (count<0) {
+					System.out.println(count);
+				}
+			}));
+			report(names[n]+": report, 1 year ("+queries+" queries)", size, time(() -> {
+				for (int i=0; i<queries; i++) {
+					index.getCollisionReport(zips[i%ZIPS], begin, year);
+				}
+			}));
+			report(names[n]+": remove + add ("+churn+" collisions)", size, time(() -> {
+				for (int i=0; i<churn; i++) {
+					Collision c=collisions[i*(size/churn)];
+					index.remove(c);
+					index.add(c);
+				}
+			}));
+		}
+
+		final Integer[] random=new Integer[size];
+		for (int i=0; i<size; i++) {
+			random[i]=i;
+		}
+		Collections.shuffle(Arrays.asList(random), new Random(42));
+		String[] sets={"BST_AVL", "BST_Arena", "BST_Arena (compact)"};
+		List<Supplier<Set<Integer>>> setFactories=Arrays.asList(BST_AVL<Integer>::new, BST_Arena<Integer>::new, BST_Arena<Integer>::new);
+		for (int n=0; n<sets.length; n++) {
+			final Supplier<Set<Integer>> factory=setFactories.get(n);
+			final boolean compact=n==2;
+			report(sets[n]+": add (random order)", size, time(() -> {
+				Set<Integer> set=factory.get();
+				for (Integer i : random) {
+					set.add(i);
+				}
+				if (compact) {
+					((BST_Arena<Integer>) set).compact();
+				}
+			}));
+
+			long before=usedMemory();
+			final Set<Integer> set=factory.get();
+			for (Integer i : random) {
+				set.add(i);
+			}
+			if (compact) {
+				((BST_Arena<Integer>) set).compact();
+			}
+			long bytes=usedMemory()-before;
+			System.out.println(String.format("%-45s n=%-10d %10.1f bytes/row", sets[n]+": memory", size, (double) bytes/size));
+
+			report(sets[n]+": iterate", size, time(() -> {
+				long sum=0;
+				for (Integer i : set) {
+					sum+=i;
+				}
+				if (sum<0) {
+					System.out.println(sum);
+				}
+			}));
+			report(sets[n]+": contains (every element)", size, time(() -> {
+				for (Integer i : random) {
+					if (!set.contains(i)) {
+						throw new IllegalStateException("missing "+i);
+					}
+				}
+			}));
+			report(sets[n]+": remove + add ("+churn+" elements)", size, time(() -> {
+				for (int i=0; i<churn; i++) {
+					Integer item=random[i*(size/churn)];
+					set.remove(item);
+					set.add(item);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Compares building the tree-like dump of CollisionsData and BST_AVL as a String against
+	 * streaming it to a channel that discards it
+	 *
+	 * @param int number of elements
+	 */
+	private static void benchmarkDump(int size) {
+		final CollisionsData collisions=buildTree(size);
+		final BST_AVL<Integer> integers=new BST_AVL<Integer>();
+		for (int i=0; i<size; i++) {
+			integers.add(i);
+		}
+		final WritableByteChannel discard=new WritableByteChannel() {
+			@Override
+			public int write(ByteBuffer buffer) {
+				int length=buffer.remaining();
+				buffer.position(buffer.limit());
+				return length;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+
+		report("CollisionsData toStringTreeFormat", size, time(() -> collisions.toStringTreeFormat().length()));
+		report("CollisionsData writeTreeFormat (channel)", size, time(() -> {
+			try {
+				collisions.writeTreeFormat(discard);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}));
+		report("BST_AVL toStringTreeFormat", size, time(() -> integers.toStringTreeFormat().length()));
+		report("BST_AVL writeTreeFormat (channel)", size, time(() -> {
+			try {
+				integers.writeTreeFormat(discard);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}));
+	}
+
+	/**
+	 * Measures the throughput of a mixed workload (80% contains, 10% add, 10% remove of random
+	 * integers below twice the size) on a tree that starts with size random integers, run by 1
+	 * to 8 threads: BST_Concurrent with hand-over-hand locking, against BST_Recursive behind a
+	 * single lock.
+	 *
+	 * @param int number of elements
+	 */
+	private static void benchmarkConcurrent(int size) {
+		final int operations=4000000;
+		Random random=new Random(42);
+		final Integer[] values=new Integer[2*size];
+		for (int i=0; i<values.length; i++) {
+			values[i]=i;
+		}
+		Integer[] initial=new Integer[size];
+		for (int i=0; i<size; i++) {
+			initial[i]=values[random.nextInt(values.length)];
+		}
+
+		for (int threads=1; threads<=8; threads*=2) {
+			final BST_Concurrent<Integer> concurrent=new BST_Concurrent<Integer>();
+			final Set<Integer> locked=Collections.synchronizedSet(new BST_Recursive<Integer>());
+			for (Integer i : initial) {
+				concurrent.add(i);
+				locked.add(i);
+			}
+			report("BST_Concurrent ("+threads+" threads, "+operations+" ops)", size,
+					timeThreads(threads, operations, values, concurrent));
+			report("synchronized BST_Recursive ("+threads+" threads)", size,
+					timeThreads(threads, operations, values, locked));
+		}
+	}
+
+	/**
+	 * Runs the mixed workload of benchmarkConcurrent on a set with the given number of threads
+	 *
+	 * @param int number of threads
+	 * @param int total number of operations (divided among the threads)
+	 * @param Integer[] values the operations choose from
+	 * @param Set set the threads work on
+	 * @return time in milliseconds until all threads finished
+	 */
+	private static double timeThreads(int threads, int operations, Integer[] values, Set<Integer> set) {
+		Thread[] workers=new Thread[threads];
+		for (int t=0; t<threads; t++) {
+			final Random random=new Random(t);
+			workers[t]=new Thread(() -> {
+				for (int i=0; i<operations/threads; i++) {
+					Integer value=values[random.nextInt(values.length)];
+					int op=random.nextInt(10);
+					if (op==0) {
+						set.add(value);
+					} else if (op==1) {
+						set.remove(value);
+					} else {
+						set.contains(value);
+					}
+				}
+			});
+		}
+		long start=System.nanoTime();
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		try {
+			for (Thread worker : workers) {
+				worker.join();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		return (System.nanoTime()-start)/1e6;
+	}
+
+	/**
+	 * Compares BST_AVL against BST_Recursive for integers added in sorted, reverse sorted, and
+	 * random order. Sorted input turns BST_Recursive into a linked list (quadratic time and one
+	 * stack frame per element), so it is only measured on the first DEGENERATE elements for the
+	 * sorted orders.
+	 *
+	 * @param int number of elements
+	 */
+	private static void benchmarkBST(int size) {
+		final int DEGENERATE=10000;
+		Integer[] sorted=new Integer[size];
+		for (int i=0; i<size; i++) {
+			sorted[i]=i;
+		}
+		Integer[] reverse=new Integer[size];
+		for (int i=0; i<size; i++) {
+			reverse[i]=sorted[size-1-i];
+		}
+		Integer[] random=sorted.clone();
+		Collections.shuffle(Arrays.asList(random), new Random(42));
+
+		String[] orders={"sorted", "reverse", "random"};
+		Integer[][] inputs={sorted, reverse, random};
+		for (int n=0; n<orders.length; n++) {
+			final Integer[] items=inputs[n];
+			report("BST_AVL add ("+orders[n]+" order)", size, time(() -> {
+				BST_AVL<Integer> tree=new BST_AVL<Integer>();
+				for (Integer i : items) {
+					tree.add(i);
+				}
+			}));
+			report("BST_AVL add + contains + remove ("+orders[n]+")", size, time(() -> {
+				BST_AVL<Integer> tree=new BST_AVL<Integer>();
+				for (Integer i : items) {
+					tree.add(i);
+				}
+				for (Integer i : items) {
+					if (!tree.contains(i)) {
+						throw new IllegalStateException("missing "+i);
+					}
+				}
+				for (Integer i : items) {
+					tree.remove(i);
+				}
+			}));
+
+			final int count=n<2 ? Math.min(size, DEGENERATE) : size;
+			report("BST_Recursive add ("+orders[n]+" order)", count, time(() -> {
+				BST_Recursive<Integer> tree=new BST_Recursive<Integer>();
+				for (int i=0; i<count; i++) {
+					tree.add(items[i]);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Compares the CollisionIndex implementations: time to load all collisions with addAll,
+	 * memory used by the index itself (the collisions are shared), report latency for one month
+	 * and for one year, a full iteration, and a small number of single removes and adds
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkIndex(int size) {
+		final List<Collision> collisions=Arrays.asList(randomCollisions(size, 42));
+		final int queries=10000;
+		final int churn=1000;
+		final String[] zips=new String[ZIPS];
+		for (int i=0; i<ZIPS; i++) {
+			zips[i]=String.format("%05d", 10001+i*7);
+		}
+		final Date begin=new Date(2014, 6, 1);
+		final Date month=new Date(2014, 6, 30);
+		final Date year=new Date(2015, 5, 31);
+
+		String[] names={"AVL (CollisionsData)", "red-black", "B+-tree", "sorted array"};
+		List<Supplier<CollisionIndex>> factories=Arrays.asList(CollisionsData::new,
+				RedBlackCollisionIndex::new, BPlusTreeCollisionIndex::new, SortedArrayCollisionIndex::new);
+		for (int n=0; n<names.length; n++) {
+			final Supplier<CollisionIndex> factory=factories.get(n);
+			report(names[n]+": load", size, time(() -> factory.get().addAll(collisions)));
+
+			long before=usedMemory();
+			final CollisionIndex index=factory.get();
+			index.addAll(collisions);
+			long bytes=usedMemory()-before;
+			System.out.println(String.format("%-45s n=%-10d %10.1f bytes/row", names[n]+": memory", size, (double) bytes/size));
+
+			report(names[n]+": report, 1 month ("+queries+" queries)", size, time(() -> {
+				for (int i=0; i<queries; i++) {
+					index.getCollisionReport(zips[i%ZIPS], begin, month);
+				}
+			}));
+			report(names[n]+": report, 1 year ("+queries+" queries)", size, time(() -> {
+				for (int i=0; i<queries; i++) {
+					index.getCollisionReport(zips[i%ZIPS], begin, year);
+				}
+			}));
+			report(names[n]+": iterate", size, time(() -> {
+				int count=0;
+				for (Collision c : index) {
+					count+=c.getPersonsInjured();
+				}
+				if (count<0) {
+					System.out.println(count);
+				}
+			}));
+			report(names[n]+": remove + add ("+churn+" collisions)", size, time(() -> {
+				for (int i=0; i<churn; i++) {
+					Collision c=collisions.get(i*(size/churn));
+					index.remove(c);
+					index.add(c);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Measures adding and removing collisions one at a time in random, sorted, and reverse sorted
+	 * order, in a normal and in a persistent tree
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkInsert(int size) {
+		final Collision[] random=randomCollisions(size, 42);
+		final Collision[] sorted=random.clone();
+		Arrays.sort(sorted);
+		final Collision[] reverse=new Collision[size];
+		for (int i=0; i<size; i++) {
+			reverse[i]=sorted[size-1-i];
+		}
+
+		for (boolean persistent : new boolean[] {false, true}) {
+			String mode=persistent ? "persistent " : "";
+			for (String order : new String[] {"random", "sorted", "reverse"}) {
+				final Collision[] items=order.equals("random") ? random : order.equals("sorted") ? sorted : reverse;
+				report(mode+"add ("+order+" order)", size, time(() -> {
+					CollisionsData collisions=new CollisionsData(persistent);
+					for (Collision c : items) {
+						collisions.add(c);
+					}
+				}));
+				report(mode+"add + remove ("+order+" order)", size, time(() -> {
+					CollisionsData collisions=new CollisionsData(persistent);
+					for (Collision c : items) {
+						collisions.add(c);
+					}
+					for (Collision c : items) {
+						collisions.remove(c);
+					}
+				}));
+			}
+		}
+	}
+
+	/**
+	 * Measures the operations that are dominated by Collision.compareTo: inserting in random
+	 * order, removing, and range queries on the tree
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkCompare(int size) {
+		final Collision[] shuffled=randomCollisions(size, 42);
+		final CollisionsData tree=buildTree(size);
+		final int queries=100000;
+		final String[] zips=new String[ZIPS];
+		for (int i=0; i<ZIPS; i++) {
+			zips[i]=String.format("%05d", 10001+i*7);
+		}
+		final Date begin=new Date(2014, 6, 1);
+		final Date end=new Date(2014, 6, 30);
+
+		report("add (random order)", size, time(() -> {
+			CollisionsData collisions=new CollisionsData();
+			for (Collision c : shuffled) {
+				collisions.add(c);
+			}
+		}));
+		report("add + remove (random order)", size, time(() -> {
+			CollisionsData collisions=new CollisionsData();
+			for (Collision c : shuffled) {
+				collisions.add(c);
+			}
+			for (Collision c : shuffled) {
+				collisions.remove(c);
+			}
+		}));
+		report("getCollisionReport ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				tree.getCollisionReport(zips[i%ZIPS], begin, end);
+			}
+		}));
+		report("getCollisions ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				tree.getCollisions(zips[i%ZIPS], begin, end);
+			}
+		}));
+	}
+
+	/**
+	 * Compares citywide reports for one month answered by a traversal of the whole tree against
+	 * the same reports answered by the date index
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkCitywide(int size) {
+		final CollisionsData tree=buildTree(size);
+		final CollisionsData indexed=buildTree(size);
+		indexed.enableDateIndex();
+		final int queries=100;
+		final Date[] begins=new Date[12];
+		final Date[] ends=new Date[12];
+		for (int i=0; i<12; i++) {
+			begins[i]=new Date(2014, i+1, 1);
+			ends[i]=new Date(2014, i+1, 28);
+		}
+
+		report("citywide report without index ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				tree.getCollisionReport(begins[i%12], ends[i%12]);
+			}
+		}));
+		report("citywide report with index ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				indexed.getCollisionReport(begins[i%12], ends[i%12]);
+			}
+		}));
+		report("citywide collisions with index ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				indexed.getCollisions(begins[i%12], ends[i%12]);
+			}
+		}));
+	}
+
+	/**
+	 * Compares reports for yearly windows answered by the aggregated tree against the same
+	 * reports answered by the rollup, and the cost of keeping the rollup up to date
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkRollup(int size) {
+		final Collision[] shuffled=randomCollisions(size, 42);
+		final CollisionsData tree=buildTree(size);
+		final CollisionsData rolled=buildTree(size);
+		rolled.enableRollup();
+		final int queries=100000;
+		final String[] zips=new String[ZIPS];
+		for (int i=0; i<ZIPS; i++) {
+			zips[i]=String.format("%05d", 10001+i*7);
+		}
+		final Date[] begins=new Date[6];
+		final Date[] ends=new Date[6];
+		for (int i=0; i<6; i++) {
+			begins[i]=new Date(2012+i, 1, 1);
+			ends[i]=new Date(2012+i, 12, 31);
+		}
+
+		report("tree getCollisionReport ("+queries+" yearly queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				tree.getCollisionReport(zips[i%ZIPS], begins[i%6], ends[i%6]);
+			}
+		}));
+		report("rollup getCollisionReport ("+queries+" yearly queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				rolled.getCollisionReport(zips[i%ZIPS], begins[i%6], ends[i%6]);
+			}
+		}));
+		report("add without rollup", size, time(() -> {
+			CollisionsData collisions=new CollisionsData();
+			for (Collision c : shuffled) {
+				collisions.add(c);
+			}
+		}));
+		report("add with rollup", size, time(() -> {
+			CollisionsData collisions=new CollisionsData();
+			collisions.enableRollup();
+			for (Collision c : shuffled) {
+				collisions.add(c);
+			}
+		}));
+	}
+
+	/**
+	 * Compares getReport (a new String per query) against getCollisionReport written into a
+	 * reused StringBuilder
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkReport(int size) {
+		final CollisionsData collisions=buildTree(size);
+		final String[] zips=new String[ZIPS];
+		for (int i=0; i<ZIPS; i++) {
+			zips[i]=String.format("%05d", 10001+i*7);
+		}
+		final Date begin=new Date(2013, 3, 1);
+		final Date end=new Date(2015, 9, 30);
+		final int queries=100000;
+
+		report("getReport ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				collisions.getReport(zips[i%ZIPS], begin, end);
+			}
+		}));
+		report("getCollisionReport ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				collisions.getCollisionReport(zips[i%ZIPS], begin, end);
+			}
+		}));
+		final StringBuilder out=new StringBuilder();
+		report("getCollisionReport + appendTo ("+queries+" queries)", size, time(() -> {
+			for (int i=0; i<queries; i++) {
+				out.setLength(0);
+				try {
+					collisions.getCollisionReport(zips[i%ZIPS], begin, end).appendTo(out);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+		}));
+	}
+
+	/**
+	 * Compares building the trees with repeated calls to add against the bulk-build constructors
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkBulk(int size) {
+		final Collision[] shuffled=randomCollisions(size, 42);
+		final Collision[] sorted=shuffled.clone();
+		Arrays.sort(sorted);
+
+		report("CollisionsData add (random order)", size, time(() -> {
+			CollisionsData collisions=new CollisionsData();
+			for (Collision c : shuffled) {
+				collisions.add(c);
+			}
+		}));
+		report("CollisionsData add (sorted order)", size, time(() -> {
+			CollisionsData collisions=new CollisionsData();
+			for (Collision c : sorted) {
+				collisions.add(c);
+			}
+		}));
+		report("CollisionsData bulk build", size, time(() -> new CollisionsData(sorted)));
+		report("CollisionsData sort + bulk build", size, time(() -> {
+			Collision[] copy=shuffled.clone();
+			Arrays.sort(copy);
+			new CollisionsData(copy);
+		}));
+
+		final Collision[] half=Arrays.copyOf(sorted, size/2);
+		final List<Collision> rest=Arrays.asList(Arrays.copyOfRange(sorted, size/2, size));
+		report("CollisionsData bulkAddAll (half into half)", size, time(() -> new CollisionsData(half).bulkAddAll(rest)));
+
+		report("BST_Recursive add (random order)", size, time(() -> {
+			BST_Recursive<Collision> tree=new BST_Recursive<Collision>();
+			for (Collision c : shuffled) {
+				tree.add(c);
+			}
+		}));
+		report("BST_Recursive bulk build", size, time(() -> new BST_Recursive<Collision>(sorted)));
+	}
+
+	/**
+	 * Compares the memory used per row by CollisionsData and CollisionStore
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkMemory(int size) {
+
+		//the tree keeps every Collision object (and its Date and Strings) alive
+		long before=usedMemory();
+		CollisionsData tree=buildTree(size);
+		long treeBytes=usedMemory()-before;
+		tree.getReport("10001", new Date(2012, 1, 1), new Date(2012, 1, 2));
+		tree=null;
+
+		//the store only keeps its columns
+		before=usedMemory();
+		CollisionStore store=buildStore(size);
+		long storeBytes=usedMemory()-before;
+
+		System.out.println(String.format("%-45s n=%-10d %10.1f bytes/row", "CollisionsData (measured)", size, (double) treeBytes/size));
+		System.out.println(String.format("%-45s n=%-10d %10.1f bytes/row", "CollisionStore (measured)", size, (double) storeBytes/size));
+		System.out.println(String.format("%-45s n=%-10d %10.1f bytes/row", "CollisionStore.bytesPerRow", size, store.bytesPerRow()));
+	}
+
+	/**
+	 * Compares the number of nodes visited by the bounded range scan of CollisionsData against
+	 * the recursive search it replaced
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkRange(int size) {
+		CollisionsData collisions=buildTree(size);
+		Random random=new Random(7);
+		int queries=1000;
+		long oldVisited=0;
+		long newVisited=0;
+		long found=0;
+		long oldTime=0;
+		long newTime=0;
+		for (int i=0; i<queries; i++) {
+			String zip=String.format("%05d", 10001+random.nextInt(ZIPS)*7);
+			Date begin=new Date(2012+random.nextInt(3), 1+random.nextInt(12), 1+random.nextInt(28));
+			Date end=new Date(2015+random.nextInt(3), 1+random.nextInt(12), 1+random.nextInt(28));
+
+			long start=System.nanoTime();
+			ArrayList<Collision> matches=new ArrayList<Collision>();
+			oldVisited+=recursiveSearch(zip, begin, end, collisions.root, matches);
+			oldTime+=System.nanoTime()-start;
+
+			start=System.nanoTime();
+			ArrayList<Collision> scanned=new ArrayList<Collision>();
+			newVisited+=collisions.findCollisions(zip, begin, end, scanned);
+			newTime+=System.nanoTime()-start;
+
+			if (matches.size()!=scanned.size()) {
+				throw new IllegalStateException("range scan found "+scanned.size()+" instead of "+matches.size());
+			}
+			found+=scanned.size();
+		}
+
+		System.out.println(String.format("%-45s n=%-10d %10.1f matches/query", "range queries", size, (double) found/queries));
+		System.out.println(String.format("%-45s n=%-10d %10.1f nodes/query %8.1f us/query", "recursive search (before)", size, (double) oldVisited/queries, oldTime/1e3/queries));
+		System.out.println(String.format("%-45s n=%-10d %10.1f nodes/query %8.1f us/query", "bounded range scan (after)", size, (double) newVisited/queries, newTime/1e3/queries));
+	}
+
+	/**
+	 * The search CollisionsData used before the bounded range scan (it parses the zip codes
+	 * and visits both subtrees of every node with a matching zip code)
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @param CollisionsData.Node root of the current subtree
+	 * @param ArrayList of matching Collision objects
+	 * @return number of nodes visited
+	 */
+	private static int recursiveSearch(String zip, Date dateBegin, Date dateEnd, CollisionsData.Node n, ArrayList<Collision> collisions) {
+		if (n==null) {
+			return 0;
+		}
+		int visited=1;
+		if (Integer.parseInt(zip)==Integer.parseInt(n.data.getZip())) {
+			if (dateBegin.compareTo(n.data.getDate())<=0 && dateEnd.compareTo(n.data.getDate())>=0) {
+				collisions.add(n.data);
+			} else if (dateBegin.compareTo(n.data.getDate())>0) {
+				visited+=recursiveSearch(zip, dateBegin, dateEnd, n.left, collisions);
+			} else {
+				visited+=recursiveSearch(zip, dateBegin, dateEnd, n.right, collisions);
+			}
+		}
+		if (Integer.parseInt(zip)>Integer.parseInt(n.data.getZip())) {
+			visited+=recursiveSearch(zip, dateBegin, dateEnd, n.right, collisions);
+		} else if (Integer.parseInt(zip)<Integer.parseInt(n.data.getZip())) {
+			visited+=recursiveSearch(zip, dateBegin, dateEnd, n.left, collisions);
+		} else {
+			visited+=recursiveSearch(zip, dateBegin, dateEnd, n.left, collisions);
+			visited+=recursiveSearch(zip, dateBegin, dateEnd, n.right, collisions);
+		}
+		return visited;
+	}
+
+	/**
+	 * Measures writing and loading a binary snapshot against rebuilding the tree with add
+	 *
+	 * @param int number of collisions
+	 */
+	private static void benchmarkSnapshot(int size) {
+		final CollisionsData collisions=buildTree(size);
+		try {
+			final File file=File.createTempFile("collisions", ".snapshot");
+			file.deleteOnExit();
+
+			report("CollisionsSnapshot.write", size, time(() -> {
+				try {
+					CollisionsSnapshot.write(collisions, file);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}));
+			report("CollisionsSnapshot.read", size, time(() -> {
+				try {
+					if (CollisionsSnapshot.read(file).size()!=collisions.size()) {
+						throw new IllegalStateException("snapshot has the wrong size");
+					}
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}));
+			report("CollisionsData add (rebuild)", size, time(() -> {
+				CollisionsData rebuilt=new CollisionsData();
+				for (Collision c : collisions) {
+					rebuilt.add(c);
+				}
+			}));
+			System.out.println(String.format("%-45s n=%-10d %10.1f bytes/row", "snapshot file size", size, (double) file.length()/size));
+			file.delete();
+		} catch (IOException ex) {
+			System.err.println("Error: "+ex.getMessage());
+		}
+	}
+
+	/**
+	 * Compares parsing dates with a Scanner (how the Date class used to do it) against the
+	 * packed Date parser
+	 *
+	 * @param int number of dates
+	 */
+	private static void benchmarkDate(int size) {
+		final String[] dates=new String[size];
+		Random random=new Random(3);
+		for (int i=0; i<size; i++) {
+			dates[i]=String.format("%02d/%02d/%d", 1+random.nextInt(12), 1+random.nextInt(28), 2012+random.nextInt(6));
+		}
+
+		final long[] checksum=new long[3];
+		report("Scanner (before)", size, time(() -> {
+			long sum=0;
+			for (String date : dates) {
+				Scanner tokenizer=new Scanner(date);
+				tokenizer.useDelimiter("/");
+				int month=tokenizer.nextInt();
+				int day=tokenizer.nextInt();
+				int year=tokenizer.nextInt();
+				tokenizer.close();
+				sum+=new Date(year, month, day).toPacked();
+			}
+			checksum[0]=sum;
+		}));
+		report("new Date(String)", size, time(() -> {
+			long sum=0;
+			for (String date : dates) {
+				sum+=new Date(date).toPacked();
+			}
+			checksum[1]=sum;
+		}));
+		report("Date.parsePacked (no allocation)", size, time(() -> {
+			long sum=0;
+			for (String date : dates) {
+				sum+=Date.parsePacked(date, 0, date.length());
+			}
+			checksum[2]=sum;
+		}));
+		if (checksum[0]!=checksum[1] || checksum[0]!=checksum[2]) {
+			throw new IllegalStateException("parsers disagree");
+		}
+	}
+
+	/**
+	 * Builds a CollisionsData object out of random collisions
+	 *
+	 * @param int number of collisions
+	 * @return CollisionsData object
+	 */
+	private static CollisionsData buildTree(int size) {
+		CollisionsData tree=new CollisionsData();
+		for (Collision c : randomCollisions(size, 42)) {
+			tree.add(c);
+		}
+		return tree;
+	}
+
+	/**
+	 * Builds a CollisionStore object out of random collisions (sorted by the first report)
+	 *
+	 * @param int number of collisions
+	 * @return CollisionStore object
+	 */
+	private static CollisionStore buildStore(int size) {
+		CollisionStore store=new CollisionStore();
+		for (Collision c : randomCollisions(size, 42)) {
+			store.add(c);
+		}
+		store.getReport("10001", new Date(2012, 1, 1), new Date(2012, 1, 2));
+		return store;
+	}
+
+	/**
+	 * Measures the memory currently used by the heap (after garbage collection)
+	 *
+	 * @return bytes in use
+	 */
+	private static long usedMemory() {
+		Runtime runtime=Runtime.getRuntime();
+		for (int i=0; i<3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory()-runtime.freeMemory();
+	}
+
+	/**
+	 * Generates random collisions: zip codes out of a fixed set, dates between 2012 and 2017,
+	 * and unique numeric keys.
+	 *
+	 * @param int number of collisions
+	 * @param long seed of the random number generator
+	 * @return array of collisions in random order
+	 */
+	static Collision[] randomCollisions(int size, long seed) {
+		Random random=new Random(seed);
+		String[] zips=new String[ZIPS];
+		for (int i=0; i<ZIPS; i++) {
+			zips[i]=String.format("%05d", 10001+i*7);
+		}
+
+		Collision[] collisions=new Collision[size];
+		for (int i=0; i<size; i++) {
+			Date date=new Date(2012+random.nextInt(6), 1+random.nextInt(12), 1+random.nextInt(28));
+			collisions[i]=new Collision(date, zips[random.nextInt(ZIPS)], Integer.toString(3000000+i),
+					random.nextInt(3), random.nextInt(2), random.nextInt(2), random.nextInt(2),
+					random.nextInt(2), random.nextInt(2), random.nextInt(3), random.nextInt(2));
+		}
+		return collisions;
+	}
+
+	/**
+	 * Runs a piece of code a few times
+	 *
+	 * @param Runnable code to be measured
+	 * @return best time in milliseconds
+	 */
+	static double time(Runnable code) {
+		long best=Long.MAX_VALUE;
+		for (int i=0; i<ROUNDS; i++) {
+			long start=System.nanoTime();
+			code.run();
+			best=Math.min(best, System.nanoTime()-start);
+		}
+		return best/1e6;
+	}
+
+	/**
+	 * Prints a single measurement
+	 *
+	 * @param String name of the measurement
+	 * @param int number of collisions
+	 * @param double time in milliseconds
+	 */
+	static void report(String name, int size, double millis) {
+		System.out.println(String.format("%-45s n=%-10d %10.1f ms", name, size, millis));
+	}
+}
@@ -2,7 +2,13 @@ package project5;
 
 //imports proper packages needed
 import project5.Date;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class is responsible for processing info about all collisions records (i.e. all valid
@@ -10,18 +16,252 @@ import java.util.*;
  *
  * @author Nanako Chung/Joanna Klukowska
  */
-public class CollisionsData {
+public class CollisionsData implements CollisionIndex {
 
-	//root of tree
-	protected Node root;
-	//helper variable used by the remove methods
-	private boolean found;
+	//root of tree (volatile, so that a new root is published to readers with a single write)
+	protected volatile Node root;
+	//whether add and remove copy the nodes they change instead of changing them in place
+	private final boolean persistent;
+	//order of the collisions in the tree (null for Collision.compareTo, see CollisionsDateIndex)
+	private final Comparator<Collision> order;
+
+	//daily totals kept next to the tree (null unless enableRollup was called)
+	private volatile CollisionsRollup rollup;
+
+	//collisions ordered by date (null unless enableDateIndex was called)
+	private volatile CollisionsDateIndex dateIndex;
+
+	//positions of the number of collisions and the killed/injured totals in a report
+	static final int COUNT=0;
+	static final int PERSONS_KILLED=1;
+	static final int PEDESTRIANS_KILLED=2;
+	static final int CYCLISTS_KILLED=3;
+	static final int MOTORISTS_KILLED=4;
+	static final int PERSONS_INJURED=5;
+	static final int PEDESTRIANS_INJURED=6;
+	static final int CYCLISTS_INJURED=7;
+	static final int MOTORISTS_INJURED=8;
+	static final int TOTALS=9;
 
 	/**
 	 * This is a default constructor that creates an empty tree.
 	 */
 	public CollisionsData() {
+		this(false);
+	}
+
+	/**
+	 * This constructor creates an empty tree, optionally in persistent mode. In persistent mode
+	 * add and remove never change a node that is already in the tree: they copy the O(log n)
+	 * nodes on the path they change and publish the new root with a single volatile write.
+	 * Readers (getReport, getCollisions, iterators, snapshot) work on the root they read first
+	 * and never need a lock, even while another thread adds or removes collisions. Versions no
+	 * longer referenced by any reader are reclaimed by the garbage collector.
+	 *
+	 * @param persistent true for persistent mode
+	 */
+	public CollisionsData(boolean persistent) {
 		this.root=null;
+		this.persistent=persistent;
+		this.order=null;
+	}
+
+	/**
+	 * This constructor creates an empty tree (not persistent) whose collisions are ordered by the
+	 * given comparator instead of Collision.compareTo. It is only used by CollisionsDateIndex,
+	 * which keeps its nodes in such a tree: add, remove and the tree structure follow the
+	 * comparator. Everything that assumes the natural order (the queries by zip code, bulkAddAll,
+	 * snapshot, and spliterator) throws UnsupportedOperationException on such a tree.
+	 *
+	 * @param Comparator order of the collisions
+	 */
+	CollisionsData(Comparator<Collision> order) {
+		this.root=null;
+		this.persistent=false;
+		this.order=order;
+	}
+
+	/**
+	 * This constructor builds a balanced AVL tree out of an array of Collision objects in O(n).
+	 * Null elements are ignored.
+	 *
+	 * @param sorted array of Collision objects in ascending order
+	 * @throws IllegalArgumentException if the Collision objects are not in ascending order
+	 */
+	public CollisionsData(Collision[] sorted) throws IllegalArgumentException {
+		this.persistent=false;
+		this.order=null;
+
+		//nulls are removed first (the array is only copied if there are any)
+		int size=0;
+		for (int i=0; i<sorted.length; i++) {
+			if (sorted[i]!=null) {
+				size++;
+			}
+		}
+		if (size<sorted.length) {
+			Collision[] items=new Collision[size];
+			size=0;
+			for (int i=0; i<sorted.length; i++) {
+				if (sorted[i]!=null) {
+					items[size++]=sorted[i];
+				}
+			}
+			sorted=items;
+		}
+
+		checkSorted(sorted, size);
+		buildFromSorted(sorted, size);
+	}
+
+	/**
+	 * This constructor builds a balanced AVL tree out of Collision objects given in ascending
+	 * order in O(n). Null elements are ignored.
+	 *
+	 * @param sorted Collision objects in ascending order
+	 * @throws IllegalArgumentException if the Collision objects are not in ascending order
+	 */
+	public CollisionsData(Iterable<Collision> sorted) throws IllegalArgumentException {
+		this.persistent=false;
+		this.order=null;
+		Collision[] items=toArray(sorted);
+		checkSorted(items, items.length);
+		buildFromSorted(items, items.length);
+	}
+
+	/**
+	 * Adds a batch of Collision objects given in ascending order to this AVL tree. The batch is
+	 * merged with the current contents of the tree and the tree is rebuilt bottom-up, so the cost
+	 * is O(n+m) instead of O(m log(n+m)) for m separate calls to add. Null elements are ignored.
+	 *
+	 * @param sorted Collision objects in ascending order
+	 * @throws IllegalArgumentException if the Collision objects are not in ascending order
+	 */
+	public synchronized void bulkAddAll(Iterable<Collision> sorted) throws IllegalArgumentException {
+		requireNaturalOrder();
+		Collision[] batch=toArray(sorted);
+		checkSorted(batch, batch.length);
+
+		//nothing to add
+		if (batch.length==0) {
+			return;
+		}
+
+		//collects the current contents of the tree in order
+		ArrayList<Collision> current=new ArrayList<Collision>();
+		inOrder(root, current);
+
+		//merges the two sorted sequences (items already in the tree come first when equal)
+		Collision[] merged=new Collision[current.size()+batch.length];
+		int i=0;
+		int j=0;
+		int k=0;
+		while (i<current.size() && j<batch.length) {
+			if (current.get(i).compareTo(batch[j])<=0) {
+				merged[k++]=current.get(i++);
+			} else {
+				merged[k++]=batch[j++];
+			}
+		}
+		while (i<current.size()) {
+			merged[k++]=current.get(i++);
+		}
+		while (j<batch.length) {
+			merged[k++]=batch[j++];
+		}
+
+		buildFromSorted(merged, merged.length);
+	}
+
+	/**
+	 * Copies the non-null Collision objects of an Iterable into an array
+	 *
+	 * @param items Collision objects
+	 * @return array of the Collision objects
+	 */
+	private static Collision[] toArray(Iterable<Collision> items) {
+		ArrayList<Collision> list=new ArrayList<Collision>();
+		for (Collision c : items) {
+			if (c!=null) {
+				list.add(c);
+			}
+		}
+		return list.toArray(new Collision[list.size()]);
+	}
+
+	/**
+	 * Checks that the first size elements of an array are in ascending order
+	 *
+	 * @param sorted array of Collision objects
+	 * @param size number of elements to check
+	 * @throws IllegalArgumentException if the Collision objects are not in ascending order
+	 */
+	private static void checkSorted(Collision[] sorted, int size) throws IllegalArgumentException {
+		for (int i=1; i<size; i++) {
+			if (sorted[i-1].compareTo(sorted[i])>0) {
+				throw new IllegalArgumentException("Collision objects are not sorted at index "+i);
+			}
+		}
+	}
+
+	/**
+	 * Actual recursive implementation of inorder traversal that collects the Collision objects
+	 * of this AVL tree
+	 *
+	 * @param node the root of the current subtree
+	 * @param collisions ArrayList that the Collision objects are added to
+	 */
+	private void inOrder(Node node, ArrayList<Collision> collisions) {
+		if (node!=null) {
+			inOrder(node.left, collisions);
+			collisions.add(node.data);
+			inOrder(node.right, collisions);
+		}
+	}
+
+	/**
+	 * Replaces the contents of this AVL tree with the given Collision objects. The objects have
+	 * to be sorted, so that the tree can be built bottom-up in a single pass without any rotations.
+	 * In persistent mode readers see either the old or the new contents.
+	 *
+	 * @param sorted array of Collision objects in ascending order
+	 * @param size number of Collision objects in the array that are used
+	 */
+	synchronized void buildFromSorted(Collision[] sorted, int size) {
+		this.root=build(sorted, 0, size-1);
+		if (rollup!=null) {
+			rebuildRollup(rollup);
+		}
+		if (dateIndex!=null) {
+			dateIndex.rebuild(sorted, size);
+		}
+	}
+
+	/**
+	 * Actual recursive implementation of the bottom-up build: the middle element becomes the
+	 * root of the subtree and the two halves become its children.
+	 *
+	 * @param sorted array of Collision objects in ascending order
+	 * @param low index of the first element of the subtree
+	 * @param high index of the last element of the subtree
+	 * @return root of the balanced subtree
+	 */
+	private Node build(Collision[] sorted, int low, int high) {
+
+		//no elements left for this subtree
+		if (low>high) {
+			return null;
+		}
+
+		//middle element is the root, everything before it goes left and everything after goes right
+		int mid=(low+high)>>>1;
+		Node node=new Node(sorted[mid]);
+		node.left=build(sorted, low, mid-1);
+		node.right=build(sorted, mid+1, high);
+
+		//children are built first, so the height can be computed right away
+		updateHeight(node);
+		return node;
 	}
 
 	/**
@@ -30,42 +270,135 @@ public class CollisionsData {
 	 * 
 	 * @param item the new element to be added to the AVL tree
 	 */
-	public void add(Collision item) {
+	public synchronized void add(Collision item) {
 
 		//if item is empty, return nothing
 		if (item==null) {
 			return;
 		}
 
-		//calls private recursive add method
-		root=recAdd(this.root, item);
+		//inserts along an explicit path instead of recursing
+		root=insert(this.root, item);
+		added(item);
 	}
 
 	/**
-	 * Actual recursive implementation of add (also balances AVL tree)
+	 * Adds a batch of Collision objects to the AVL tree (nulls are ignored). The whole batch is
+	 * added under one lock, and in persistent mode readers see the new root only once the whole
+	 * batch has been added. The rollup and the date index are updated after the new root is
+	 * published, each with the whole batch at once.
 	 * 
-	 * @param a node 
-	 * @param an item the new element to be added to the AVL tree
-	 * @return balanced node
+	 * @param items the new elements to be added to the AVL tree
+	 */
+	public synchronized void addAll(Iterable<Collision> items) {
+
+		//the batch is only kept if the rollup or the date index have to follow the tree
+		ArrayList<Collision> batch=rollup!=null || dateIndex!=null ? new ArrayList<Collision>() : null;
+		Node node=root;
+		for (Collision item : items) {
+			if (item!=null) {
+				node=insert(node, item);
+				if (batch!=null) {
+					batch.add(item);
+				}
+			}
+		}
+		root=node;
+
+		if (rollup!=null) {
+			rollup.addAll(batch);
+		}
+		if (dateIndex!=null) {
+			dateIndex.addAll(batch);
+		}
+	}
+
+	/**
+	 * Iterative implementation of add (also balances AVL tree). The nodes on the way down are
+	 * kept in a path array, so that they can be updated on the way back up (see retrace).
+	 * 
+	 * @param root of the tree
+	 * @param item the new element to be added to the AVL tree
+	 * @return new root of the tree
 	 */
-	private Node recAdd(Node node, Collision item) {
+	private Node insert(Node root, Collision item) {
 
-		//if node is empty, simply create a new node
-		if (node == null) { 
+		//if tree is empty, simply create a new node
+		if (root == null) {
 			return new Node(item);
 		}
 
-		//compares Collision object stored in node with Collision item and decides which child to recursively call on
-		if (node.data.compareTo(item) > 0) {
-			node.left = recAdd(node.left, item);
-		} else {
-			node.right = recAdd(node.right, item);
+		//an AVL tree of height h has paths of at most h+1 nodes
+		Node[] path = new Node[root.height + 1];
+		int depth = 0;
+
+		//in persistent mode every node on the path is copied before it is changed
+		root = mutable(root);
+		Node node = root;
+		while (true) {
+			path[depth++] = node;
+
+			//compares Collision object stored in node with Collision item and decides which child to go to
+			if (compare(node.data, item) > 0) {
+				if (node.left == null) {
+					node.left = new Node(item);
+					break;
+				}
+				node.left = mutable(node.left);
+				node = node.left;
+			} else {
+				if (node.right == null) {
+					node.right = new Node(item);
+					break;
+				}
+				node.right = mutable(node.right);
+				node = node.right;
+			}
 		}
+		return retrace(path, depth, root);
+	}
 
-		//updates height of node
-		updateHeight(node);
-		//returns a balanced node
-		return balance(node); 
+	/**
+	 * Updates the nodes of a path after a node below the path was added or removed, from the
+	 * bottom up. Heights are updated and nodes are rebalanced until a subtree's height did not
+	 * change; above that only the totals are updated.
+	 * 
+	 * @param Node[] nodes from the root down to the parent of the added or removed node
+	 * @param int number of nodes in the path
+	 * @param Node root of the tree
+	 * @return new root of the tree
+	 */
+	private Node retrace(Node[] path, int depth, Node root) {
+		int i = depth - 1;
+		while (i >= 0) {
+			Node node = path[i];
+
+			//the height (and the totals) of every node on the path are computed exactly once
+			int height = node.height;
+			updateHeight(node);
+			Node balanced = balance(node);
+
+			//a rotation replaces the node by another one in its parent
+			if (balanced != node) {
+				if (i == 0) {
+					root = balanced;
+				} else if (path[i - 1].left == node) {
+					path[i - 1].left = balanced;
+				} else {
+					path[i - 1].right = balanced;
+				}
+			}
+			i--;
+			if (balanced.height == height) {
+				break;
+			}
+		}
+
+		//heights above do not change, but the totals still do
+		for (; i >= 0; i--) {
+			updateTotals(path[i]);
+		}
+		return root;
 	}
 
 	/**
@@ -75,89 +408,290 @@ public class CollisionsData {
 	 * @param target item of type Collision to be removed from this AVL tree 
 	 * @return boolean found
 	 */
-	public boolean remove(Collision target) {
+	public synchronized boolean remove(Collision target) {
 
 		//tree does not change
 		if (target==null) {
 			return false;
 		}
 
-		//recursive call to recursive remove method
-		this.root=recRemove(target, root);
-		return found;
+		//the rollup and the date index need the stored object, whose counts may differ from the target
+		Collision stored = delete(target, false);
+		if (stored == null) {
+			return false;
+		}
+		if (rollup != null) {
+			rollup.remove(stored);
+		}
+		if (dateIndex != null) {
+			dateIndex.remove(stored);
+		}
+		return true;
 	}
 
 	/**
-	 * Actual recursive implementation of remove method: find the node to remove.  
+	 * Removes a Collision object that is stored in this AVL tree: the object itself, not an
+	 * equal one (equal collisions may have different killed/injured counts). Used by
+	 * CollisionsDateIndex to remove exactly the object that was removed from the main tree.
+	 * 
+	 * @param stored the Collision object to be removed
+	 * @return true if the object was found and removed
+	 */
+	synchronized boolean removeStored(Collision stored) {
+		return stored != null && delete(stored, true) != null;
+	}
+
+	/**
+	 * Iterative implementation of remove (also balances AVL tree). A node with two children
+	 * takes the data of its predecessor, whose node (with at most one child) is removed instead.
+	 * In persistent mode the new root is only published if the target was found.
 	 * 
 	 * @param target the item to be removed from this AVL tree
-	 * @param a node of type Node
-	 * @return balanced node
+	 * @param identity true if the node has to hold target itself, false if any equal item will do
+	 * @return the Collision object that was removed, or null if it was not found
 	 */
-	private Node recRemove(Collision target, Node node) {
+	private Collision delete(Collision target, boolean identity) {
+		if (root == null) {
+			return null;
+		}
+
+		//an AVL tree of height h has paths of at most h+1 nodes
+		Node[] path = new Node[root.height + 1];
+		int depth = locate(root, target, identity, path, 0);
+		if (depth < 0) {
+			return null;
+		}
+
+		//copies the path in persistent mode (every copy is linked into the copy of its parent)
+		path[0] = mutable(path[0]);
+		for (int i = 1; i <= depth; i++) {
+			Node child = mutable(path[i]);
+			if (path[i - 1].left == path[i]) {
+				path[i - 1].left = child;
+			} else {
+				path[i - 1].right = child;
+			}
+			path[i] = child;
+		}
+		Node newRoot = path[0];
+		Node node = path[depth];
+		Collision removed = node.data;
+
+		//a node with two children takes the data of the rightmost node of its left subtree
+		if (node.left != null && node.right != null) {
+			path[depth++] = node;
+			Node predecessor = mutable(node.left);
+			node.left = predecessor;
+			while (predecessor.right != null) {
+				path[depth++] = predecessor;
+				predecessor.right = mutable(predecessor.right);
+				predecessor = predecessor.right;
+			}
+			node.data = predecessor.data;
+			node = predecessor;
+		}
 
-		//if node is empty after recursively calling on it, then the Collision object is not found
-		if (node == null) {
-			found = false;
-		} //compares Collision object stored in node with Collision item and decides which child to recursively call on
-		else if (target.compareTo(node.data) < 0) {
-			node.left = recRemove(target, node.left);
-		} else if (target.compareTo(node.data) > 0) {
-			node.right = recRemove(target, node.right);
+		//the node has at most one child, which takes its place
+		Node child = node.left != null ? node.left : node.right;
+		if (depth == 0) {
+			newRoot = child;
+		} else if (path[depth - 1].left == node) {
+			path[depth - 1].left = child;
 		} else {
-			node = removeNode(node);
-			found = true;
-		} 
-		//updates height of node
-		updateHeight(node);
+			path[depth - 1].right = child;
+		}
+		this.root = retrace(path, depth, newRoot);
+		return removed;
+	}
 
-		//returns node
-		return balance(node);
+	/**
+	 * Finds the path from a node down to the node that holds the target, without changing the
+	 * tree. Equal collisions form a run in the order of the tree that may continue in both
+	 * subtrees of an equal node, so a search by identity looks at both subtrees of equal nodes
+	 * (the first equal node is taken otherwise).
+	 * 
+	 * @param node root of the subtree
+	 * @param target the item to be found
+	 * @param identity true if the node has to hold target itself
+	 * @param path nodes from the root of the tree down to the node (filled in from depth on)
+	 * @param depth position of node in the path
+	 * @return position of the node holding target in the path, or -1 if it was not found
+	 */
+	private int locate(Node node, Collision target, boolean identity, Node[] path, int depth) {
+		while (node != null) {
+			path[depth] = node;
+			int cmp = compare(target, node.data);
+			if (cmp == 0) {
+				if (!identity || node.data == target) {
+					return depth;
+				}
+				int found = locate(node.left, target, identity, path, depth + 1);
+				if (found >= 0) {
+					return found;
+				}
+				node = node.right;
+			} else {
+				node = cmp < 0 ? node.left : node.right;
+			}
+			depth++;
+		}
+		return -1;
 	}
 
 	/**
-	 * Actual recursive implementation of remove method: perform the removal.  
+	 * Compares two Collision objects in the order of this tree
 	 * 
-	 * @param target the item to be removed from this AVL tree 
-	 * @return a reference to the node itself, or to the modified subtree 
+	 * @param Collision a
+	 * @param Collision b
+	 * @return an int based on respective comparisons
 	 */
-	private Node removeNode(Node node) {
+	private int compare(Collision a, Collision b) {
+		return order == null ? a.compareTo(b) : order.compare(a, b);
+	}
 
-		//checks if left or right child is empty and balances right or left child respectively 
-		if (node.left == null) {
-			return node.right;
+	/**
+	 * Makes sure that the collisions of this tree are in the order of Collision.compareTo, for the
+	 * methods that depend on it
+	 * 
+	 * @throws UnsupportedOperationException if the tree was created with a different order
+	 */
+	private void requireNaturalOrder() throws UnsupportedOperationException {
+		if (order!=null) {
+			throw new UnsupportedOperationException("not supported by a tree that is not in the order of Collision.compareTo");
 		}
+	}
 
-		if (node.right  == null) {
-			return node.left;
+	/**
+	 * Starts keeping daily totals per zip code next to the tree (see CollisionsRollup), so that
+	 * getReport and getCollisionReport no longer depend on the number of collisions in the range.
+	 * The totals are built from the current contents and updated by every add and remove.
+	 * Snapshots of the tree do not keep the rollup.
+	 */
+	public synchronized void enableRollup() {
+		if (rollup==null) {
+			CollisionsRollup newRollup=new CollisionsRollup();
+			rebuildRollup(newRollup);
+			rollup=newRollup;
 		}
+	}
 
-		//since there are two children, find the predecessor, remove, and return balanced node
-		Collision data = getPredecessor(node);
-		node.data = data;
-		node.left = recRemove(data, node.left);
-		return node;
+	/**
+	 * Starts keeping a secondary index ordered by date (see CollisionsDateIndex) that shares
+	 * the Collision objects of this tree, so that getCollisions(Date, Date) and
+	 * getCollisionReport(Date, Date) no longer traverse the whole tree. The index is built from
+	 * the current contents and updated by every add and remove. Snapshots of the tree do not
+	 * keep the index.
+	 */
+	public synchronized void enableDateIndex() {
+		if (dateIndex==null) {
+			Collision[] items=toArray(this);
+			CollisionsDateIndex newIndex=new CollisionsDateIndex();
+			newIndex.rebuild(items, items.length);
+			dateIndex=newIndex;
+		}
 	}
 
 	/**
-	 * Returns the information held in the rightmost node of subtree  
+	 * Updates the rollup and the date index (if they are enabled) after a collision was added
 	 * 
-	 * @param subtree root of the subtree within which to search for the rightmost node 
-	 * @return Collision object stored in the rightmost node of subtree  
+	 * @param Collision item that was added
 	 */
-	private Collision getPredecessor(Node subtree) {
+	private void added(Collision item) {
+		if (rollup!=null) {
+			rollup.add(item);
+		}
+		if (dateIndex!=null) {
+			dateIndex.add(item);
+		}
+	}
 
-		//should not happen, but if it does throw a NullPointerException
-		if (subtree.left==null) {
-			throw new NullPointerException("getPredecessor called with an empty subtree");
+	/**
+	 * Replaces the contents of a rollup by the collisions in the tree
+	 * 
+	 * @param CollisionsRollup rollup
+	 */
+	private void rebuildRollup(CollisionsRollup rollup) {
+		rollup.clear();
+		for (Collision c : this) {
+			rollup.add(c);
 		}
+	}
+
+	/**
+	 * Returns the node that may be changed by add or remove: the node itself, or a copy of it in
+	 * persistent mode (so that readers of older versions of the tree never see the change)
+	 * 
+	 * @param Node node
+	 * @return node or its copy
+	 */
+	private Node mutable(Node node) {
+		return persistent ? new Node(node) : node;
+	}
 
-		//finds predecessor by finding the right-most node in the left subtree
-		Node temp = subtree.left;
-		while (temp.right  != null) {
-			temp = temp.right ;
+	/**
+	 * Returns a read-only view of the current contents of this AVL tree that does not change
+	 * when collisions are added or removed later. In persistent mode the view shares all nodes
+	 * with this tree and is created in O(1); otherwise the tree is copied in O(n).
+	 * 
+	 * @return CollisionsData object holding the current contents
+	 */
+	public CollisionsData snapshot() {
+		requireNaturalOrder();
+		CollisionsData snapshot=new CollisionsData(true);
+		if (persistent) {
+			snapshot.root=root;
+		} else {
+			synchronized (this) {
+				ArrayList<Collision> current=new ArrayList<Collision>();
+				inOrder(root, current);
+				snapshot.root=build(current.toArray(new Collision[current.size()]), 0, current.size()-1);
+			}
 		}
-		return temp.data;
+		return snapshot;
+	}
+
+	/**
+	 * Determines the number of Collision objects stored in this AVL tree.
+	 * 
+	 * @return number of Collision objects
+	 */
+	public int size() {
+		Node node=root;
+		return node==null ? 0 : node.count;
+	}
+
+	/**
+	 * Returns an iterator over the Collision objects of this AVL tree in ascending order. The
+	 * tree should not be changed while it is being iterated over.
+	 * 
+	 * @return Iterator of Collision objects
+	 */
+	@Override
+	public Iterator<Collision> iterator() {
+		return new InOrderIterator(root);
+	}
+
+	/**
+	 * Returns a Spliterator over the Collision objects of this AVL tree in ascending order. It
+	 * splits at subtree boundaries and knows the exact size of every part (from the subtree
+	 * counts), so parallel streams divide the work evenly without copying the tree.
+	 * 
+	 * @return Spliterator of Collision objects
+	 */
+	@Override
+	public Spliterator<Collision> spliterator() {
+		requireNaturalOrder();
+		return new TreeSpliterator(root);
+	}
+
+	/**
+	 * Returns a sequential Stream of the Collision objects of this AVL tree in ascending order
+	 * (call parallel() on it to process it on all cores).
+	 * 
+	 * @return Stream of Collision objects
+	 */
+	public Stream<Collision> stream() {
+		return StreamSupport.stream(spliterator(), false);
 	}
 
 	/**
@@ -169,47 +703,65 @@ public class CollisionsData {
 
 		//create a StringBuilder object to store the long String
 		StringBuilder s = new StringBuilder();
-		preOrderPrint(root, 0, s);
+		try {
+			writeTreeFormat(s);
+		} catch (IOException ex) {
+
+			//a StringBuilder never throws
+			throw new AssertionError(ex);
+		}
 		return s.toString();
 	}
 
 	/**
-	 * Actual recursive implementation of preorder traversal to produce tree-like String
-	 * representation of this tree.
+	 * Writes the tree like String representation of this AVL tree (see toStringTreeFormat) to
+	 * the given destination one line at a time, so that the representation of a large tree never
+	 * has to be in memory as a whole. The preorder traversal uses an explicit stack of at most
+	 * one entry per level.
 	 * 
-	 * @param tree the root of the current subtree
-	 * @param level level (depth) of the current recursive call in the tree to
-	 *   determine the indentation of each item
-	 * @param output the String that accumulated the String representation of this
-	 *   AVL tree
+	 * @param Appendable destination of the text (for example a StringBuilder or a Writer)
+	 * @throws IOException if the destination cannot be written
 	 */
-	private void preOrderPrint(Node tree, int level, StringBuilder s) {
+	public void writeTreeFormat(Appendable out) throws IOException {
+		TreeWriter writer = new TreeWriter(out);
 
-		//if the tree is not null, recursively call the method until tree reaches null
-		//if tree is null, print an empty tree
-		if (tree != null) {
-			String spaces = "\n";
-			if (level > 0) {
-				for (int i = 0; i < level - 1; i++) {
-					spaces += "   ";
-				} spaces += "|--";
-			}
-			s.append(spaces);
-			s.append(tree.data);
-			preOrderPrint(tree.left, level + 1, s);
-			preOrderPrint(tree.right, level + 1, s);
-		} else {
-			String spaces = "\n";
-			if (level > 0) {
-				for (int i = 0; i < level - 1; i++) {
-					spaces += "   ";
-				} spaces += "|--";
+		//subtrees (empty ones as null) still to be written, and their levels (the root is read
+		//once, so that a persistent tree is written as it was when the method was called)
+		Node tree = root;
+		Node[] nodes = new Node[tree == null ? 1 : tree.height + 3];
+		int[] levels = new int[nodes.length];
+		int top = 0;
+		nodes[top] = tree;
+		levels[top++] = 0;
+		while (top > 0) {
+			Node node = nodes[--top];
+			int level = levels[top];
+			nodes[top] = null;
+			writer.write(level, node == null ? null : node.data);
+
+			//the left subtree is written before the right one
+			if (node != null) {
+				nodes[top] = node.right;
+				levels[top++] = level + 1;
+				nodes[top] = node.left;
+				levels[top++] = level + 1;
 			}
-			s.append(spaces);
-			s.append("null");
 		}
 	}
 
+	/**
+	 * Writes the tree like String representation of this AVL tree (see toStringTreeFormat) to
+	 * the given channel in UTF-8. The channel is not closed.
+	 * 
+	 * @param WritableByteChannel destination of the text (for example a FileChannel)
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeTreeFormat(WritableByteChannel channel) throws IOException {
+		Writer out = TreeWriter.open(channel);
+		writeTreeFormat(out);
+		out.flush();
+	}
+
 	/**
 	 * This method is responsible for properly displaying the report of collisions
 	 * 
@@ -219,107 +771,309 @@ public class CollisionsData {
 	 * @return formatted String of report
 	 */
 	public String getReport(String zip, Date dateBegin, Date dateEnd) {
+		return getCollisionReport(zip, dateBegin, dateEnd).toString();
+	}
 
-		//arraylist that stores all the collision objects with the same zip and within the date range
-		ArrayList<Collision> collisions=new ArrayList<Collision>();
-		findCollisions(zip, dateBegin, dateEnd, root, collisions);
-
-		//initializes necessary variables
-		int personsF=0;
-		int pedestriansF=0;
-		int cyclistsF=0;
-		int motoristsF=0;
-		int personsI=0;
-		int pedestriansI=0;
-		int cyclistsI=0;
-		int motoristsI=0;
-
-		//sum info from each Collision object within the right date ranges and zipcode
-		for (int i=0; i<collisions.size(); i++) {
-			personsF+=collisions.get(i).getPersonsKilled();
-			pedestriansF+=collisions.get(i).getPedestriansKilled();
-			cyclistsF+=collisions.get(i).getCyclistsKilled();
-			motoristsF+=collisions.get(i).getMotoristsKilled();
-			personsI+=collisions.get(i).getPersonsInjured();
-			pedestriansI+=collisions.get(i).getPedestriansInjured();
-			cyclistsI+=collisions.get(i).getCyclistsInjured();
-			motoristsI+=collisions.get(i).getMotoristsInjured();
+	/**
+	 * Sums the number of collisions and the killed/injured counts for a zip code and date range
+	 * into a report object (the report is the only object that is allocated)
+	 * 
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return report with the totals
+	 */
+	public CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		requireNaturalOrder();
 
+		//the rollup answers with two prefix sums
+		CollisionsRollup rollup=this.rollup;
+		if (rollup!=null) {
+			return rollup.getCollisionReport(zip, dateBegin, dateEnd);
 		}
 
-		//create a StringBuilder object to store the long String
-		StringBuilder rep=new StringBuilder();
-		rep.append("\nMotor Vehicle Collisions for zipcode "+zip+" ("+dateBegin.toString()+" - "+dateEnd.toString()+")\n"+"====================================================================\n");
-		rep.append("Total number of collisions: "+collisions.size()+"\n");
-		rep.append("Number of fatalities: "+personsF+"\n");
-		rep.append(String.format("%22s", "pedestrians: "));
-		rep.append(pedestriansF+"\n");
-		rep.append(String.format("%22s", "cyclists: "));
-		rep.append(cyclistsF+"\n");
-		rep.append(String.format("%22s", "motorists: "));
-		rep.append(motoristsF+"\n");
-		rep.append("Number of injuries: "+personsI+"\n");
-		rep.append(String.format("%20s", "pedestrians: "));
-		rep.append(pedestriansI+"\n");
-		rep.append(String.format("%20s", "cyclists: "));
-		rep.append(cyclistsI+"\n");
-		rep.append(String.format("%20s", "motorists: "));
-		rep.append(motoristsI);
-
-		//catches any exceptions returning the StringBuilder may throw
-		try {
-			return rep.toString();
-		} catch (Exception x) {
-			return x.getMessage();
+		//sums info of all Collision objects within the right date ranges and zipcode
+		CollisionReport totals=new CollisionReport(zip, dateBegin, dateEnd);
+
+		//no collision can have a zip code that is not five digits
+		int zipCode=queryZip(zip);
+		if (zipCode<0) {
+			return totals;
 		}
+		long begin=Collision.sortKey(zipCode, dateBegin);
+		long end=Collision.sortKey(zipCode, dateEnd);
+
+		//finds the highest node that is within the range (the range splits below it)
+		Node node=root;
+		while (node!=null) {
+			if (isBefore(node.data, begin)) {
+				node=node.right;
+			} else if (isAfter(node.data, end)) {
+				node=node.left;
+			} else {
+				break;
+			}
+		}
+
+		if (node!=null) {
+			totals.add(node.data);
+
+			//walks down the left boundary of the range: whenever a node is within the range,
+			//its whole right subtree is within the range as well
+			Node left=node.left;
+			while (left!=null) {
+				if (isBefore(left.data, begin)) {
+					left=left.right;
+				} else {
+					totals.add(left.data);
+					addTotals(totals, left.right);
+					left=left.left;
+				}
+			}
+
+			//walks down the right boundary of the range the same way
+			Node right=node.right;
+			while (right!=null) {
+				if (isAfter(right.data, end)) {
+					right=right.left;
+				} else {
+					totals.add(right.data);
+					addTotals(totals, right.left);
+					right=right.right;
+				}
+			}
+		}
+		return totals;
 	}
 
 	/**
-	 * searches for first node where zip appears (similar to BST tree search)
+	 * This method is responsible for formatting the totals of a report
 	 * 
 	 * @param String zip code
 	 * @param Date start date
 	 * @param Date end date
-	 * @param collisions ArrayList of Collision objects
+	 * @param int[] totals indexed by COUNT, PERSONS_KILLED, ..., MOTORISTS_INJURED
 	 * @return formatted String of report
 	 */
-	private void findCollisions(String zip, Date dateBegin, Date dateEnd, Node n, ArrayList<Collision> collisions) {
+	static String formatReport(String zip, Date dateBegin, Date dateEnd, int[] totals) {
+		return new CollisionReport(zip, dateBegin, dateEnd, totals).toString();
+	}
 
-		//base case 1
-		if (n==null || dateBegin==null || dateEnd==null || collisions==null) {
-			return;
+	/**
+	 * Finds all Collision objects of every zip code with a date within the given range. Without
+	 * the date index (see enableDateIndex), the whole tree is traversed.
+	 * 
+	 * @param Date start date
+	 * @param Date end date
+	 * @return ArrayList of the Collision objects in date order
+	 */
+	public ArrayList<Collision> getCollisions(Date dateBegin, Date dateEnd) {
+		CollisionsDateIndex dateIndex=this.dateIndex;
+		if (dateIndex!=null) {
+			return dateIndex.getCollisions(dateBegin, dateEnd);
 		}
 
-		//base case 2
-		if (Integer.parseInt(zip)==Integer.parseInt(n.data.getZip())) {
+		ArrayList<Collision> collisions=new ArrayList<Collision>();
+		for (Collision c : this) {
+			if (c.getDate().compareTo(dateBegin)>=0 && c.getDate().compareTo(dateEnd)<=0) {
+				collisions.add(c);
+			}
+		}
+		Collections.sort(collisions, CollisionsDateIndex::compare);
+		return collisions;
+	}
 
-			//we are in the correct zip code, so check dates
-			if (dateBegin.compareTo(n.data.getDate())<=0 && dateEnd.compareTo(n.data.getDate())>=0) {
-				collisions.add(n.data);
-			} else if (dateBegin.compareTo(n.data.getDate())>0) {
-				findCollisions(zip, dateBegin, dateEnd, n.left, collisions);
-			} else {
-				findCollisions(zip, dateBegin, dateEnd, n.right, collisions);
-			} 
-		} 
+	/**
+	 * Sums the number of collisions and the killed/injured counts of all zip codes for a date
+	 * range. Without the date index (see enableDateIndex), the whole tree is traversed.
+	 * 
+	 * @param Date start date
+	 * @param Date end date
+	 * @return report with the totals (its zip code is null)
+	 */
+	public CollisionReport getCollisionReport(Date dateBegin, Date dateEnd) {
+		CollisionsDateIndex dateIndex=this.dateIndex;
+		if (dateIndex!=null) {
+			return dateIndex.getCollisionReport(dateBegin, dateEnd);
+		}
 
-		//checks left and right if the zip is the same
-		if (Integer.parseInt(zip)>Integer.parseInt(n.data.getZip())) { 
-			findCollisions(zip, dateBegin, dateEnd, n.right, collisions); 
-		} else if (Integer.parseInt(zip)<Integer.parseInt(n.data.getZip())) {
-			findCollisions(zip, dateBegin, dateEnd, n.left, collisions);
-		} else {
-			findCollisions(zip, dateBegin, dateEnd, n.left, collisions);
-			findCollisions(zip, dateBegin, dateEnd, n.right, collisions);
+		CollisionReport report=new CollisionReport(null, dateBegin, dateEnd);
+		for (Collision c : this) {
+			if (c.getDate().compareTo(dateBegin)>=0 && c.getDate().compareTo(dateEnd)<=0) {
+				report.add(c);
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Finds all Collision objects with the given zip code and a date within the given range
+	 * 
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return ArrayList of the Collision objects in ascending order
+	 */
+	public ArrayList<Collision> getCollisions(String zip, Date dateBegin, Date dateEnd) {
+		ArrayList<Collision> collisions=new ArrayList<Collision>();
+		findCollisions(zip, dateBegin, dateEnd, collisions);
+		return collisions;
+	}
+
+	/**
+	 * Bounded range scan: an inorder traversal (with an explicit stack instead of recursion)
+	 * that skips every subtree that lies before the start of the range and stops at the first
+	 * node after the end of the range, so only O(log n + k) nodes are visited for k matches.
+	 * 
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @param collisions ArrayList the matching Collision objects are added to
+	 * @return number of nodes visited
+	 */
+	int findCollisions(String zip, Date dateBegin, Date dateEnd, ArrayList<Collision> collisions) {
+		requireNaturalOrder();
+
+		//nothing can be found without a range (or for a zip code that is not five digits)
+		int zipCode=queryZip(zip);
+		if (zipCode<0 || dateBegin==null || dateEnd==null) {
+			return 0;
+		}
+		long begin=Collision.sortKey(zipCode, dateBegin);
+		long end=Collision.sortKey(zipCode, dateEnd);
+
+		ArrayDeque<Node> stack=new ArrayDeque<Node>();
+		Node node=root;
+		int visited=0;
+		while (node!=null || !stack.isEmpty()) {
+
+			//goes down to the smallest node of the subtree that is not before the range; a node
+			//before the range has a left subtree that is before the range as well
+			while (node!=null) {
+				visited++;
+				if (isBefore(node.data, begin)) {
+					node=node.right;
+				} else {
+					stack.push(node);
+					node=node.left;
+				}
+			}
+
+			//every node is before the range (the range is after the largest stored node)
+			if (stack.isEmpty()) {
+				break;
+			}
+
+			//every node after this one is after the range as well
+			node=stack.pop();
+			if (isAfter(node.data, end)) {
+				break;
+			}
+			collisions.add(node.data);
+			node=node.right;
+		}
+		return visited;
+	}
+
+	/**
+	 * Determines whether a Collision object comes before the start of a report range
+	 * 
+	 * @param Collision object c
+	 * @param long sort key of the zip code and start date of the range (see Collision.sortKey)
+	 * @return true if c has a smaller zip code, or the same zip code and an earlier date
+	 */
+	private static boolean isBefore(Collision c, long begin) {
+		return c.getSortKey()<begin;
+	}
+
+	/**
+	 * Determines whether a Collision object comes after the end of a report range
+	 * 
+	 * @param Collision object c
+	 * @param long sort key of the zip code and end date of the range (see Collision.sortKey)
+	 * @return true if c has a larger zip code, or the same zip code and a later date
+	 */
+	private static boolean isAfter(Collision c, long end) {
+		return c.getSortKey()>end;
+	}
+
+	/**
+	 * Converts the zip code of a query into its ZipCodes code
+	 * 
+	 * @param String zip code
+	 * @return code of the zip code, or -1 if it is not five digits (no collision can have it)
+	 */
+	static int queryZip(String zip) {
+		try {
+			return ZipCodes.code(zip);
+		} catch (IllegalArgumentException ex) {
+			return -1;
 		}
 	}
 
 	/**
-	 * Updates height of the specified node
+	 * Adds the subtree totals of a node to a report (nothing is added for an empty subtree)
 	 * 
+	 * @param CollisionReport report
 	 * @param Node node
 	 */
-	private void updateHeight(Node node) {
+	static void addTotals(CollisionReport report, Node node) {
+		if (node!=null) {
+			report.add(node.count, node.personsKilled, node.pedestriansKilled, node.cyclistsKilled, node.motoristsKilled,
+					node.personsInjured, node.pedestriansInjured, node.cyclistsInjured, node.motoristsInjured);
+		}
+	}
+
+	/**
+	 * Updates the subtree totals of the specified node out of its own Collision object and the
+	 * totals of its children
+	 * 
+	 * @param Node node
+	 */
+	private static void updateTotals(Node node) {
+		Collision c=node.data;
+		node.count=1;
+		node.personsKilled=c.getPersonsKilled();
+		node.pedestriansKilled=c.getPedestriansKilled();
+		node.cyclistsKilled=c.getCyclistsKilled();
+		node.motoristsKilled=c.getMotoristsKilled();
+		node.personsInjured=c.getPersonsInjured();
+		node.pedestriansInjured=c.getPedestriansInjured();
+		node.cyclistsInjured=c.getCyclistsInjured();
+		node.motoristsInjured=c.getMotoristsInjured();
+
+		//adds the totals of both children
+		addChildTotals(node, node.left);
+		addChildTotals(node, node.right);
+	}
+
+	/**
+	 * Adds the subtree totals of a child to the totals of its parent
+	 * 
+	 * @param Node parent
+	 * @param Node child (nothing is added if it is empty)
+	 */
+	private static void addChildTotals(Node parent, Node child) {
+		if (child==null) {
+			return;
+		}
+		parent.count+=child.count;
+		parent.personsKilled+=child.personsKilled;
+		parent.pedestriansKilled+=child.pedestriansKilled;
+		parent.cyclistsKilled+=child.cyclistsKilled;
+		parent.motoristsKilled+=child.motoristsKilled;
+		parent.personsInjured+=child.personsInjured;
+		parent.pedestriansInjured+=child.pedestriansInjured;
+		parent.cyclistsInjured+=child.cyclistsInjured;
+		parent.motoristsInjured+=child.motoristsInjured;
+	}
+
+	/**
+	 * Updates height (and subtree totals) of the specified node
+	 * 
+	 * @param Node node
+	 */
+	private static void updateHeight(Node node) {
 
 		if (node.left==null && node.right==null) { //if node is a leaf
 			node.height=0;
@@ -330,6 +1084,9 @@ public class CollisionsData {
 		} else { //if node has two children
 			node.height=Math.max(node.right.height, node.left.height)+1;
 		}
+
+		//totals depend on the same children, so they are updated together with the height
+		updateTotals(node);
 	}
 
 	/**
@@ -338,7 +1095,7 @@ public class CollisionsData {
 	 * @param Node node
 	 * @return int that is the balance factor
 	 */
-	private int balanceFactor(Node node) {
+	private static int balanceFactor(Node node) {
 
 		//calculates balance factor based on node's children (if any)
 		if (node.right==null) {
@@ -349,7 +1106,8 @@ public class CollisionsData {
 	}
 
 	/**
-	 * Balances imbalanced node
+	 * Balances imbalanced node. The height of the node has to be up to date already (retrace
+	 * updates it once before calling balance, and the rotations update the nodes they move).
 	 * 
 	 * @param Node node
 	 * @return balanced node
@@ -375,9 +1133,6 @@ public class CollisionsData {
 				node=balanceRL(node);
 			}
 		} 
-
-		//updates height of node and returns it
-		updateHeight(node);
 		return node;
 	}
 
@@ -389,8 +1144,8 @@ public class CollisionsData {
 	 */
 	private Node balanceLL(Node A) {
 
-		//LL rotation
-		Node B=A.left;
+		//LL rotation (in persistent mode A was already copied by the caller)
+		Node B=mutable(A.left);
 		A.left=B.right;
 		B.right=A;
 
@@ -408,8 +1163,8 @@ public class CollisionsData {
 	 */
 	private Node balanceRR(Node A) {
 
-		//RR rotation
-		Node B=A.right;
+		//RR rotation (in persistent mode A was already copied by the caller)
+		Node B=mutable(A.right);
 		A.right=B.left;
 		B.left=A;
 
@@ -427,9 +1182,9 @@ public class CollisionsData {
 	 */
 	private Node balanceLR(Node A) {
 
-		//LR rotation 
-		Node B=A.left;
-		Node C=B.right;
+		//LR rotation (in persistent mode A was already copied by the caller)
+		Node B=mutable(A.left);
+		Node C=mutable(B.right);
 		A.left=C.right;
 		B.right=C.left;
 		C.left=B;
@@ -450,9 +1205,9 @@ public class CollisionsData {
 	 */
 	private Node balanceRL(Node A) {
 
-		//RL rotation
-		Node B=A.right;
-		Node C=B.left;
+		//RL rotation (in persistent mode A was already copied by the caller)
+		Node B=mutable(A.right);
+		Node C=mutable(B.left);
 		A.right=C.left;
 		B.left=C.right;
 		C.right=B;
@@ -465,6 +1220,181 @@ public class CollisionsData {
 		return C;
 	}
 
+	/**
+	 * Inorder iterator that keeps the path to the next node on an explicit stack instead of
+	 * using recursion.
+	 */
+	private static class InOrderIterator implements Iterator<Collision> {
+
+		//nodes whose left subtree was visited, but not the node itself
+		private final ArrayDeque<Node> stack=new ArrayDeque<Node>();
+
+		/**
+		 * Creates an iterator over a subtree
+		 * 
+		 * @param Node root of the subtree
+		 */
+		private InOrderIterator(Node root) {
+			pushLeft(root);
+		}
+
+		/**
+		 * Pushes a node and all nodes on the path to its leftmost descendant
+		 * 
+		 * @param Node node
+		 */
+		private void pushLeft(Node node) {
+			while (node!=null) {
+				stack.push(node);
+				node=node.left;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public Collision next() {
+			if (stack.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			Node node=stack.pop();
+			pushLeft(node.right);
+			return node.data;
+		}
+	}
+
+	/**
+	 * Spliterator that holds the remaining part of the traversal as a list of pieces in order:
+	 * each piece is either a whole subtree or a single node. Splitting hands the first pieces
+	 * (about half of the remaining Collision objects) to a new Spliterator.
+	 */
+	private static class TreeSpliterator implements Spliterator<Collision> {
+
+		//remaining pieces in order, and whether each one is a whole subtree or a single node
+		private final ArrayDeque<Node> pieces=new ArrayDeque<Node>();
+		private final ArrayDeque<Boolean> whole=new ArrayDeque<Boolean>();
+
+		//number of remaining Collision objects
+		private long size;
+
+		/**
+		 * Creates a Spliterator over a subtree
+		 * 
+		 * @param Node root of the subtree
+		 */
+		private TreeSpliterator(Node root) {
+			if (root!=null) {
+				pieces.add(root);
+				whole.add(true);
+				size=root.count;
+			}
+		}
+
+		/**
+		 * Creates a Spliterator over pieces that were split off another Spliterator
+		 */
+		private TreeSpliterator() {
+		}
+
+		/**
+		 * Replaces the first piece (a whole subtree) by its left subtree, its root, and its right subtree
+		 */
+		private void expandFirst() {
+			Node node=pieces.pollFirst();
+			whole.pollFirst();
+			if (node.right!=null) {
+				pieces.addFirst(node.right);
+				whole.addFirst(true);
+			}
+			pieces.addFirst(node);
+			whole.addFirst(false);
+			if (node.left!=null) {
+				pieces.addFirst(node.left);
+				whole.addFirst(true);
+			}
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Collision> action) {
+			if (pieces.isEmpty()) {
+				return false;
+			}
+
+			//expands subtrees until the first piece is a single node
+			while (whole.peekFirst()) {
+				expandFirst();
+			}
+			whole.pollFirst();
+			size--;
+			action.accept(pieces.pollFirst().data);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Collision> action) {
+
+			//walks every remaining piece with an inorder iterator
+			while (!pieces.isEmpty()) {
+				Node node=pieces.pollFirst();
+				if (whole.pollFirst()) {
+					InOrderIterator it=new InOrderIterator(node);
+					while (it.hasNext()) {
+						action.accept(it.next());
+					}
+				} else {
+					action.accept(node.data);
+				}
+			}
+			size=0;
+		}
+
+		@Override
+		public Spliterator<Collision> trySplit() {
+
+			//a single subtree is split into its left subtree, its root, and its right subtree
+			if (pieces.size()==1 && whole.peekFirst() && size>1) {
+				expandFirst();
+			}
+			if (pieces.size()<2) {
+				return null;
+			}
+
+			//moves pieces to the new Spliterator until it has about half of the Collision objects
+			TreeSpliterator prefix=new TreeSpliterator();
+			long half=size/2;
+			while (pieces.size()>1 && prefix.size<half) {
+				Node node=pieces.pollFirst();
+				boolean isWhole=whole.pollFirst();
+				long count=isWhole ? node.count : 1;
+				prefix.pieces.addLast(node);
+				prefix.whole.addLast(isWhole);
+				prefix.size+=count;
+				size-=count;
+			}
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return size;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SORTED | SIZED | SUBSIZED | NONNULL;
+		}
+
+		@Override
+		public Comparator<? super Collision> getComparator() {
+
+			//null means the natural order of Collision objects
+			return null;
+		}
+	}
+
 	/**
 	 * Node class is used to represent nodes in an AVL tree.
 	 * It contains a Collision data item and references to left and right subtrees. 
@@ -477,10 +1407,21 @@ public class CollisionsData {
 		protected Collision data; //Collision data stored in node
 		protected int height; //height of node
 
+		//number of collisions and killed/injured totals of the subtree rooted at this node
+		protected int count;
+		protected int personsKilled;
+		protected int pedestriansKilled;
+		protected int cyclistsKilled;
+		protected int motoristsKilled;
+		protected int personsInjured;
+		protected int pedestriansInjured;
+		protected int cyclistsInjured;
+		protected int motoristsInjured;
+
 		/**
 		 * Constructs a Node initializing the Collision data part 
 		 * according to the parameter and setting both 
-		 * references to subtrees to null.
+		 * references to subtrees to null (the totals are those of the data alone).
 		 * 
 		 * @param Collision object to be stored in the node
 		 */
@@ -489,6 +1430,36 @@ public class CollisionsData {
 			left=null;
 			right=null;
 			height=0; 
+			count=1;
+			personsKilled=data.getPersonsKilled();
+			pedestriansKilled=data.getPedestriansKilled();
+			cyclistsKilled=data.getCyclistsKilled();
+			motoristsKilled=data.getMotoristsKilled();
+			personsInjured=data.getPersonsInjured();
+			pedestriansInjured=data.getPedestriansInjured();
+			cyclistsInjured=data.getCyclistsInjured();
+			motoristsInjured=data.getMotoristsInjured();
 		} 
+
+		/**
+		 * Constructs a copy of a Node (same data, children, height, and totals).
+		 * 
+		 * @param Node to be copied
+		 */
+		protected Node(Node other) {
+			this.data=other.data;
+			left=other.left;
+			right=other.right;
+			height=other.height;
+			count=other.count;
+			personsKilled=other.personsKilled;
+			pedestriansKilled=other.pedestriansKilled;
+			cyclistsKilled=other.cyclistsKilled;
+			motoristsKilled=other.motoristsKilled;
+			personsInjured=other.personsInjured;
+			pedestriansInjured=other.pedestriansInjured;
+			cyclistsInjured=other.cyclistsInjured;
+			motoristsInjured=other.motoristsInjured;
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,515 @@
+package project5;
+
+//import the junit package
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.*;
+
+/**
+ * This class is responsible for testing the CollisionsData class's methods
+ * using junit testing.
+ *
+ * @author Nanako Chung
+ */
+@SuppressWarnings("unused")
+public class CollisionsDataTest {
+
+	/**
+	 * Creates a collision with one person injured
+	 *
+	 * @param String zip code
+	 * @param Date date of the collision
+	 * @param String key
+	 * @return Collision object
+	 */
+	private static Collision collision(String zip, Date date, String key) {
+		return new Collision(date, zip, key, 1, 0, 0, 0, 0, 0, 1, 0);
+	}
+
+	/**
+	 * Creates random collisions in ten zip codes from 2012 to 2015
+	 *
+	 * @param int number of collisions
+	 * @param long seed of the random numbers
+	 * @return array of Collision objects (with distinct keys)
+	 */
+	private static Collision[] randomCollisions(int size, long seed) {
+		Random random=new Random(seed);
+		Collision[] collisions=new Collision[size];
+		for (int i=0; i<size; i++) {
+			Date date=new Date(2012+random.nextInt(4), 1+random.nextInt(12), 1+random.nextInt(28));
+			collisions[i]=new Collision(date, String.format("%05d", 10001+random.nextInt(10)), Integer.toString(i),
+					random.nextInt(3), random.nextInt(2), random.nextInt(2), 0, random.nextInt(2), 0, random.nextInt(4), random.nextInt(2));
+		}
+		return collisions;
+	}
+
+	/**
+	 * Checks that a subtree is a valid AVL tree: heights, balance, counts, and totals of every node
+	 *
+	 * @param Node root of the subtree
+	 * @return height of the subtree (-1 for an empty subtree)
+	 */
+	private static int check(CollisionsData.Node node) {
+		if (node==null) {
+			return -1;
+		}
+		int left=check(node.left);
+		int right=check(node.right);
+		assertEquals("The height of a node is one more than the height of its higher subtree", Math.max(left, right)+1, node.height);
+		assertTrue("The heights of the subtrees differ by at most one", Math.abs(left-right)<=1);
+		if (node.left!=null) {
+			assertTrue("The left subtree is smaller than the node", node.left.data.compareTo(node.data)<0);
+		}
+		if (node.right!=null) {
+			assertTrue("The right subtree is larger than the node", node.right.data.compareTo(node.data)>0);
+		}
+		int count=1+(node.left==null ? 0 : node.left.count)+(node.right==null ? 0 : node.right.count);
+		int killed=node.data.getPersonsKilled()+(node.left==null ? 0 : node.left.personsKilled)+(node.right==null ? 0 : node.right.personsKilled);
+		int injured=node.data.getMotoristsInjured()+(node.left==null ? 0 : node.left.motoristsInjured)+(node.right==null ? 0 : node.right.motoristsInjured);
+		assertEquals("The count is the size of the subtree", count, node.count);
+		assertEquals("The totals are those of the subtree", killed, node.personsKilled);
+		assertEquals("The totals are those of the subtree", injured, node.motoristsInjured);
+		return node.height;
+	}
+
+	//tests getCollisions with a range after every stored collision
+	@Test
+	public void testGetCollisions_1() {
+		try {
+
+			//one collision in 10001 on 01/05/2015, range in February
+			CollisionsData collisions=new CollisionsData();
+			collisions.add(collision("10001", new Date(2015, 1, 5), "1"));
+			ArrayList<Collision> found=collisions.getCollisions("10001", new Date(2015, 2, 1), new Date(2015, 3, 1));
+			assertTrue("Nothing is found after the last collision", found.isEmpty());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a range after every collision");
+		}
+	}
+
+	//tests getCollisions with a range before every stored collision
+	@Test
+	public void testGetCollisions_2() {
+		try {
+
+			//one collision in 10001 on 01/05/2015, range in 2014 and a smaller zip code
+			CollisionsData collisions=new CollisionsData();
+			collisions.add(collision("10001", new Date(2015, 1, 5), "1"));
+			assertTrue("Nothing is found before the first collision",
+					collisions.getCollisions("10001", new Date(2014, 1, 1), new Date(2014, 12, 31)).isEmpty());
+			assertTrue("Nothing is found for a smaller zip code",
+					collisions.getCollisions("10000", new Date(2015, 1, 1), new Date(2015, 12, 31)).isEmpty());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a range before every collision");
+		}
+	}
+
+	//tests getCollisions with a range between stored collisions
+	@Test
+	public void testGetCollisions_3() {
+		try {
+
+			//collisions in January and in April, range in February and March
+			CollisionsData collisions=new CollisionsData();
+			collisions.add(collision("10001", new Date(2015, 1, 5), "1"));
+			collisions.add(collision("10001", new Date(2015, 4, 5), "2"));
+			collisions.add(collision("10002", new Date(2015, 2, 5), "3"));
+			assertTrue("Nothing is found between two collisions",
+					collisions.getCollisions("10001", new Date(2015, 2, 1), new Date(2015, 3, 1)).isEmpty());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a range between collisions");
+		}
+	}
+
+	//tests getCollisions with a range that includes some of the stored collisions
+	@Test
+	public void testGetCollisions_4() {
+		try {
+
+			//only the collisions of the zip code within the range are found, in ascending order
+			CollisionsData collisions=new CollisionsData();
+			collisions.add(collision("10001", new Date(2015, 3, 1), "4"));
+			collisions.add(collision("10001", new Date(2015, 1, 5), "1"));
+			collisions.add(collision("10002", new Date(2015, 2, 5), "3"));
+			collisions.add(collision("10001", new Date(2015, 2, 1), "2"));
+			collisions.add(collision("10001", new Date(2015, 3, 2), "5"));
+			ArrayList<Collision> found=collisions.getCollisions("10001", new Date(2015, 2, 1), new Date(2015, 3, 1));
+			assertEquals("Two collisions are found", 2, found.size());
+			assertEquals("The first day of the range is included", "2", found.get(0).getKey());
+			assertEquals("The last day of the range is included", "4", found.get(1).getKey());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a range with collisions");
+		}
+	}
+
+	//tests getCollisions on an empty tree and with invalid arguments
+	@Test
+	public void testGetCollisions_5() {
+		try {
+
+			//nothing is found, and nothing is thrown
+			CollisionsData collisions=new CollisionsData();
+			assertTrue("Nothing is found in an empty tree",
+					collisions.getCollisions("10001", new Date(2015, 1, 1), new Date(2015, 12, 31)).isEmpty());
+			collisions.add(collision("10001", new Date(2015, 1, 5), "1"));
+			assertTrue("Nothing is found for an invalid zip code",
+					collisions.getCollisions("1001", new Date(2015, 1, 1), new Date(2015, 12, 31)).isEmpty());
+			assertTrue("Nothing is found without a start date",
+					collisions.getCollisions("10001", null, new Date(2015, 12, 31)).isEmpty());
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for an empty tree or invalid arguments");
+		}
+	}
+
+	//tests that the range scan only visits the nodes along the range
+	@Test
+	public void testFindCollisions_1() {
+		try {
+
+			//100 zip codes with 1000 days each, and a range of one week in one zip code
+			CollisionsData collisions=new CollisionsData();
+			ArrayList<Collision> sorted=new ArrayList<Collision>();
+			for (int zip=0; zip<100; zip++) {
+				for (int day=0; day<1000; day++) {
+					Date date=Date.ofPacked(20100101+day/28/12*10000+day/28%12*100+day%28);
+					sorted.add(collision(String.format("%05d", 10001+zip), date, zip+"-"+day));
+				}
+			}
+			collisions.bulkAddAll(sorted);
+			ArrayList<Collision> found=new ArrayList<Collision>();
+			int visited=collisions.findCollisions("10050", new Date(2011, 3, 1), new Date(2011, 3, 7), found);
+			assertEquals("Every day of the week is found", 7, found.size());
+
+			//a tree of 100000 nodes is 17 levels deep, so the scan visits far fewer nodes than a full traversal
+			assertTrue("The scan visits about log n + k nodes", visited<=2*18+7);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a range scan");
+		}
+	}
+
+	//tests that the range scan finds the same collisions as a full traversal
+	@Test
+	public void testFindCollisions_2() {
+		try {
+
+			//random collisions and random ranges
+			Random random=new Random(6);
+			CollisionsData collisions=new CollisionsData();
+			for (int i=0; i<5000; i++) {
+				Date date=new Date(2012+random.nextInt(4), 1+random.nextInt(12), 1+random.nextInt(28));
+				collisions.add(collision(String.format("%05d", 10001+random.nextInt(10)), date, Integer.toString(i)));
+			}
+			for (int query=0; query<200; query++) {
+				String zip=String.format("%05d", 10000+random.nextInt(12));
+				Date begin=new Date(2011+random.nextInt(6), 1+random.nextInt(12), 1+random.nextInt(28));
+				Date end=new Date(2011+random.nextInt(6), 1+random.nextInt(12), 1+random.nextInt(28));
+				ArrayList<Collision> expected=new ArrayList<Collision>();
+				for (Collision c : collisions) {
+					if (c.getZip().equals(zip) && c.getDate().compareTo(begin)>=0 && c.getDate().compareTo(end)<=0) {
+						expected.add(c);
+					}
+				}
+				assertEquals("The scan finds every collision within the range", expected, collisions.getCollisions(zip, begin, end));
+			}
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for random range scans");
+		}
+	}
+
+	//tests snapshot in persistent mode
+	@Test
+	public void testSnapshot_1() {
+		try {
+
+			//the snapshot keeps its contents and reports while the tree changes
+			Collision[] items=randomCollisions(5000, 9);
+			CollisionsData collisions=new CollisionsData(true);
+			for (int i=0; i<3000; i++) {
+				collisions.add(items[i]);
+			}
+			CollisionsData snapshot=collisions.snapshot();
+			ArrayList<Collision> before=new ArrayList<Collision>();
+			for (Collision c : snapshot) {
+				before.add(c);
+			}
+			String report=snapshot.getReport("10005", new Date(2013, 1, 1), new Date(2014, 12, 31));
+			for (int i=3000; i<5000; i++) {
+				collisions.add(items[i]);
+			}
+			for (int i=0; i<1000; i++) {
+				assertTrue("Every stored collision can be removed", collisions.remove(items[i]));
+			}
+			ArrayList<Collision> after=new ArrayList<Collision>();
+			for (Collision c : snapshot) {
+				after.add(c);
+			}
+			assertEquals("The snapshot has the same collisions", before, after);
+			assertEquals("The snapshot has the same report", report, snapshot.getReport("10005", new Date(2013, 1, 1), new Date(2014, 12, 31)));
+			assertEquals("The snapshot has the same size", 3000, snapshot.size());
+			assertEquals("The tree has the new size", 4000, collisions.size());
+			check(snapshot.root);
+			check(collisions.root);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a persistent snapshot");
+		}
+	}
+
+	//tests snapshot when the tree is not persistent
+	@Test
+	public void testSnapshot_2() {
+		try {
+
+			//the snapshot is a copy that does not change with the tree
+			Collision[] items=randomCollisions(2000, 10);
+			CollisionsData collisions=new CollisionsData();
+			for (int i=0; i<1000; i++) {
+				collisions.add(items[i]);
+			}
+			CollisionsData snapshot=collisions.snapshot();
+			for (int i=1000; i<2000; i++) {
+				collisions.add(items[i]);
+			}
+			for (int i=0; i<500; i++) {
+				collisions.remove(items[i]);
+			}
+			assertEquals("The snapshot has the same size", 1000, snapshot.size());
+			for (int i=0; i<1000; i++) {
+				assertTrue("The snapshot has every collision it had", snapshot.getCollisions(items[i].getZip(), items[i].getDate(), items[i].getDate()).contains(items[i]));
+			}
+			check(snapshot.root);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a snapshot of a tree that is not persistent");
+		}
+	}
+
+	//tests that a persistent tree gives the same results as a tree that is not persistent
+	@Test
+	public void testPersistent_1() {
+		try {
+
+			//same adds and removes on both trees, then the same reports
+			Collision[] items=randomCollisions(4000, 11);
+			CollisionsData persistent=new CollisionsData(true);
+			CollisionsData plain=new CollisionsData();
+			for (Collision c : items) {
+				persistent.add(c);
+				plain.add(c);
+			}
+			for (int i=0; i<4000; i+=3) {
+				assertEquals("Both trees remove the same collisions", plain.remove(items[i]), persistent.remove(items[i]));
+			}
+			check(persistent.root);
+			assertEquals("Both trees have the same size", plain.size(), persistent.size());
+			for (int zip=10000; zip<=10011; zip++) {
+				Date begin=new Date(2012, 6, 1);
+				Date end=new Date(2015, 6, 30);
+				assertEquals("Both trees have the same report", plain.getReport(Integer.toString(zip), begin, end),
+						persistent.getReport(Integer.toString(zip), begin, end));
+			}
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for a persistent tree");
+		}
+	}
+
+	//tests readers of a persistent tree while another thread adds and removes collisions
+	@Test
+	public void testPersistent_2() {
+		try {
+
+			//the reader never fails and always sees a complete version of the tree
+			final Collision[] items=randomCollisions(20000, 12);
+			final CollisionsData collisions=new CollisionsData(true);
+			final ArrayList<String> errors=new ArrayList<String>();
+			Thread reader=new Thread(() -> {
+				try {
+					for (int i=0; i<2000; i++) {
+						CollisionsData version=collisions.snapshot();
+						int count=0;
+						for (Collision c : version) {
+							count++;
+						}
+						if (count!=version.size()) {
+							synchronized (errors) {
+								errors.add("iteration found "+count+" of "+version.size()+" collisions");
+							}
+						}
+						collisions.getReport("10003", new Date(2012, 1, 1), new Date(2015, 12, 31));
+					}
+				} catch (RuntimeException ex) {
+					synchronized (errors) {
+						errors.add(ex.toString());
+					}
+				}
+			});
+			reader.start();
+			for (Collision c : items) {
+				collisions.add(c);
+			}
+			for (int i=0; i<items.length; i+=2) {
+				collisions.remove(items[i]);
+			}
+			reader.join();
+			assertTrue("The reader saw only complete versions "+errors, errors.isEmpty());
+			assertEquals("Half of the collisions are left", items.length/2, collisions.size());
+			check(collisions.root);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for concurrent readers of a persistent tree");
+		}
+	}
+
+	//tests remove with null, on an empty tree, and with a collision that is not in the tree
+	@Test
+	public void testRemove_1() {
+		try {
+
+			//nothing is removed and the tree does not change
+			CollisionsData collisions=new CollisionsData();
+			assertFalse("Nothing is removed from an empty tree", collisions.remove(collision("10001", new Date(2015, 1, 5), "1")));
+			collisions.add(collision("10001", new Date(2015, 1, 5), "1"));
+			assertFalse("Null is not removed", collisions.remove(null));
+			assertFalse("A collision that is not in the tree is not removed", collisions.remove(collision("10001", new Date(2015, 1, 5), "2")));
+			assertEquals("The tree still has its collision", 1, collisions.size());
+			assertTrue("The collision is removed", collisions.remove(collision("10001", new Date(2015, 1, 5), "1")));
+			assertEquals("The tree is empty", 0, collisions.size());
+			assertNull("The tree has no root", collisions.root);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for removing a collision that is not in the tree");
+		}
+	}
+
+	//tests that adding in ascending order keeps the tree balanced
+	@Test
+	public void testAdd_1() {
+		try {
+
+			//every add rotates at the right end of the tree
+			CollisionsData collisions=new CollisionsData();
+			for (int i=0; i<4095; i++) {
+				collisions.add(collision("10001", new Date(2015, 1, 5), String.format("%05d", i)));
+			}
+			assertEquals("Every collision was added", 4095, collisions.size());
+			assertEquals("Ascending adds build a complete tree", 11, check(collisions.root));
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for adding in ascending order");
+		}
+	}
+
+	//tests removing leaves, nodes with one child, nodes with two children, and the root
+	@Test
+	public void testRemove_2() {
+		try {
+
+			//removes the root until the tree is empty, checking the tree after every remove
+			CollisionsData collisions=new CollisionsData();
+			for (int i=0; i<200; i++) {
+				collisions.add(collision("10001", new Date(2015, 1, 5), String.format("%03d", i)));
+			}
+			for (int i=200; i>0; i--) {
+				assertTrue("The root is removed", collisions.remove(collisions.root.data));
+				assertEquals("One collision less", i-1, collisions.size());
+				check(collisions.root);
+			}
+			assertNull("The tree is empty", collisions.root);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for removing the root");
+		}
+	}
+
+	//tests random adds and removes against a sorted list
+	@Test
+	public void testRemove_3() {
+		try {
+
+			//the tree has the same collisions as the list and stays an AVL tree
+			Collision[] items=randomCollisions(6000, 19);
+			Random random=new Random(19);
+			CollisionsData collisions=new CollisionsData();
+			ArrayList<Collision> expected=new ArrayList<Collision>();
+			for (int i=0; i<items.length; i++) {
+				collisions.add(items[i]);
+				expected.add(items[i]);
+				if (i%3==2) {
+					Collision removed=expected.remove(random.nextInt(expected.size()));
+					assertTrue("A stored collision is removed", collisions.remove(removed));
+				}
+				if (i%500==0) {
+					check(collisions.root);
+				}
+			}
+			check(collisions.root);
+			Collections.sort(expected);
+			ArrayList<Collision> actual=new ArrayList<Collision>();
+			for (Collision c : collisions) {
+				actual.add(c);
+			}
+			assertEquals("The tree has the same collisions as the list", expected, actual);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for random adds and removes");
+		}
+	}
+
+	//tests removing one of several equal collisions
+	@Test
+	public void testRemove_4() {
+		try {
+
+			//equal collisions (same zip code, date, and key) with different counts
+			CollisionsData collisions=new CollisionsData();
+			Collision first=new Collision(new Date(2015, 1, 5), "10001", "1", 1, 0, 0, 0, 0, 0, 1, 0);
+			Collision second=new Collision(new Date(2015, 1, 5), "10001", "1", 2, 0, 0, 0, 0, 0, 2, 0);
+			for (int i=0; i<50; i++) {
+				collisions.add(collision("10001", new Date(2015, 1, 1+i%28), "k"+i));
+			}
+			collisions.add(first);
+			collisions.add(second);
+			assertTrue("The stored object is removed", collisions.removeStored(second));
+			assertFalse("The same object is not removed twice", collisions.removeStored(second));
+			check(collisions.root);
+			boolean firstLeft=false;
+			for (Collision c : collisions.getCollisions("10001", new Date(2015, 1, 5), new Date(2015, 1, 5))) {
+				assertNotSame("The removed object is not in the tree", second, c);
+				firstLeft|=c==first;
+			}
+			assertTrue("The other equal collision is left", firstLeft);
+			assertTrue("An equal collision is removed", collisions.remove(second));
+			assertEquals("Both equal collisions are removed", 50, collisions.size());
+			check(collisions.root);
+		}
+
+		catch (Exception ex) {
+			fail("Exception raised for removing equal collisions");
+		}
+	}
+}
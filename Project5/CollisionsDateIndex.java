@@ -0,0 +1,193 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+import project5.CollisionsData.Node;
+
+/**
+ * This class is a secondary index over the same Collision objects as a CollisionsData tree,
+ * ordered by date (then key and zip code) instead of by zip code. Its nodes are kept in a
+ * CollisionsData tree built with that order, so it shares the balancing code and the subtree
+ * totals of CollisionsData, and collisions of all zip codes within a date range are listed in
+ * O(log n + k) and summed in O(log n).
+ *
+ * @author Nanako Chung
+ */
+public class CollisionsDateIndex {
+
+	//tree ordered by date, key, and zip code
+	private final CollisionsData tree;
+
+	/**
+	 * This is a default constructor that creates an empty index.
+	 */
+	public CollisionsDateIndex() {
+		this.tree=new CollisionsData(CollisionsDateIndex::compare);
+	}
+
+	/**
+	 * Replaces the contents of the index by the given collisions (in any order)
+	 *
+	 * @param Collision[] collisions to be indexed (nulls are ignored)
+	 * @param int number of collisions in the array
+	 */
+	public synchronized void rebuild(Collision[] collisions, int size) {
+		Collision[] sorted=new Collision[size];
+		int count=0;
+		for (int i=0; i<size; i++) {
+			if (collisions[i]!=null) {
+				sorted[count++]=collisions[i];
+			}
+		}
+		Arrays.sort(sorted, 0, count, CollisionsDateIndex::compare);
+		tree.buildFromSorted(sorted, count);
+	}
+
+	/**
+	 * Adds a collision to the index. If item is null, nothing changes.
+	 *
+	 * @param Collision item to be added
+	 */
+	public synchronized void add(Collision item) {
+		tree.add(item);
+	}
+
+	/**
+	 * Adds a batch of collisions to the index at once, so that no query sees only part of the
+	 * batch (nulls are ignored)
+	 *
+	 * @param Iterable collisions to be added
+	 */
+	public synchronized void addAll(Iterable<Collision> items) {
+		tree.addAll(items);
+	}
+
+	/**
+	 * Removes a collision from the index. Equal collisions may have different killed/injured
+	 * counts, so the object itself is removed, not an equal one.
+	 *
+	 * @param Collision item to be removed (an object that was added to the index)
+	 * @return true if the collision was found and removed
+	 */
+	public synchronized boolean remove(Collision item) {
+		return tree.removeStored(item);
+	}
+
+	/**
+	 * Determines the number of collisions in the index
+	 *
+	 * @return number of collisions
+	 */
+	public synchronized int size() {
+		return tree.size();
+	}
+
+	/**
+	 * Finds all collisions (of every zip code) with a date within the given range
+	 *
+	 * @param Date start date
+	 * @param Date end date
+	 * @return ArrayList of the Collision objects in date order
+	 */
+	public synchronized ArrayList<Collision> getCollisions(Date dateBegin, Date dateEnd) {
+		ArrayList<Collision> collisions=new ArrayList<Collision>();
+
+		//inorder traversal that skips subtrees before the range and stops after the range
+		ArrayDeque<Node> stack=new ArrayDeque<Node>();
+		Node node=tree.root;
+		while (node!=null || !stack.isEmpty()) {
+			while (node!=null) {
+				if (node.data.getDate().compareTo(dateBegin)<0) {
+					node=node.right;
+				} else {
+					stack.push(node);
+					node=node.left;
+				}
+			}
+
+			//every node is before the range (the range is after the latest date)
+			if (stack.isEmpty()) {
+				break;
+			}
+			node=stack.pop();
+			if (node.data.getDate().compareTo(dateEnd)>0) {
+				break;
+			}
+			collisions.add(node.data);
+			node=node.right;
+		}
+		return collisions;
+	}
+
+	/**
+	 * Sums the number of collisions and the killed/injured counts of all zip codes for a date
+	 * range (the zip code of the report is null)
+	 *
+	 * @param Date start date
+	 * @param Date end date
+	 * @return report with the totals
+	 */
+	public synchronized CollisionReport getCollisionReport(Date dateBegin, Date dateEnd) {
+		CollisionReport report=new CollisionReport(null, dateBegin, dateEnd);
+
+		//finds the highest node that is within the range (the range splits below it)
+		Node node=tree.root;
+		while (node!=null) {
+			if (node.data.getDate().compareTo(dateBegin)<0) {
+				node=node.right;
+			} else if (node.data.getDate().compareTo(dateEnd)>0) {
+				node=node.left;
+			} else {
+				break;
+			}
+		}
+		if (node==null) {
+			return report;
+		}
+		report.add(node.data);
+
+		//left boundary: a node within the range has its whole right subtree within the range
+		Node left=node.left;
+		while (left!=null) {
+			if (left.data.getDate().compareTo(dateBegin)<0) {
+				left=left.right;
+			} else {
+				report.add(left.data);
+				CollisionsData.addTotals(report, left.right);
+				left=left.left;
+			}
+		}
+
+		//right boundary, the same way
+		Node right=node.right;
+		while (right!=null) {
+			if (right.data.getDate().compareTo(dateEnd)>0) {
+				right=right.left;
+			} else {
+				report.add(right.data);
+				CollisionsData.addTotals(report, right.left);
+				right=right.right;
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Compares two collisions by date, key, and zip code (the order of the index)
+	 *
+	 * @param Collision a
+	 * @param Collision b
+	 * @return an int based on respective comparisons
+	 */
+	static int compare(Collision a, Collision b) {
+		int cmp=a.getDate().compareTo(b.getDate());
+		if (cmp!=0) {
+			return cmp;
+		}
+		cmp=Collision.compareKeys(a, b);
+		if (cmp!=0) {
+			return cmp;
+		}
+		return Integer.compare(a.getZipCode(), b.getZipCode());
+	}
+}
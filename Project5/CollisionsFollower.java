@@ -0,0 +1,246 @@
+package project5;
+
+//imports proper packages needed
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class is responsible for following an input file that is still being written to (like
+ * "tail -f"). It remembers the byte offset right after the last complete line it has parsed and,
+ * whenever the file has grown, maps and parses only the appended lines and adds them to a live
+ * CollisionsData object in batches. A line is only parsed once its terminating newline has been
+ * written, so a row that is half written is picked up by a later poll.
+ *
+ * The CollisionsData object is persistent, so queries that run while a batch is added see either
+ * the tree before or the tree after the batch, never a partially changed tree.
+ *
+ * Changes are detected by polling the size of the file (instead of a WatchService, which does
+ * not report changes to files on every platform and file system).
+ *
+ * @author Nanako Chung
+ */
+public class CollisionsFollower implements Runnable {
+
+	//number of collisions added to the tree at once
+	private static final int BATCH=4096;
+
+	//default time between two polls in milliseconds
+	private static final long INTERVAL=1000;
+
+	//followed file and the tree its rows are added to
+	private final File file;
+	private final CollisionsData collisions;
+
+	//time between two polls in milliseconds
+	private final long interval;
+
+	//byte offset right after the last parsed line (0 if the header has not been read yet)
+	private long offset;
+
+	//parser that is reused for every row of the file
+	private final CollisionsLoader loader;
+
+	//set by stop() to end run()
+	private volatile boolean stopped;
+
+	/**
+	 * This constructor creates a follower that adds the lines after the given offset of the file
+	 * to the given CollisionsData object.
+	 *
+	 * @param File followed file
+	 * @param CollisionsData object the collisions are added to
+	 * @param long byte offset of the first line that has not been parsed yet (0 to read the whole file)
+	 * @param long time between two polls in milliseconds
+	 */
+	public CollisionsFollower(File file, CollisionsData collisions, long offset, long interval) {
+		if (file==null || collisions==null) {
+			throw new IllegalArgumentException("file and collisions cannot be null");
+		}
+		if (offset<0 || interval<=0) {
+			throw new IllegalArgumentException("invalid offset or interval");
+		}
+		this.file=file;
+		this.collisions=collisions;
+		this.offset=offset;
+		this.interval=interval;
+		this.loader=new CollisionsLoader();
+	}
+
+	/**
+	 * Loads all complete lines of the given file in parallel into a new persistent CollisionsData
+	 * object and creates a follower that continues right after them
+	 *
+	 * @param File file to be loaded and followed
+	 * @return follower positioned after the last complete line of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static CollisionsFollower open(File file) throws IOException {
+		CollisionsData collisions=new CollisionsData(true);
+		long end;
+		try (RandomAccessFile raf=new RandomAccessFile(file, "r"); FileChannel channel=raf.getChannel()) {
+			end=lastLineEnd(channel, channel.size());
+
+			//nothing but the header (or not even the header) has been written so far
+			if (end>0) {
+				CollisionsLoader.loadParallel(channel, end, ForkJoinPool.commonPool(), collisions);
+			}
+		}
+		return new CollisionsFollower(file, collisions, end, INTERVAL);
+	}
+
+	/**
+	 * Returns the CollisionsData object the collisions are added to
+	 *
+	 * @return live CollisionsData object
+	 */
+	public CollisionsData getCollisions() {
+		return collisions;
+	}
+
+	/**
+	 * Returns the byte offset right after the last parsed line
+	 *
+	 * @return byte offset
+	 */
+	public synchronized long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Parses all complete lines that were appended to the file since the last poll and adds the
+	 * valid rows to the CollisionsData object. If the file became shorter than the offset, it is
+	 * assumed to have been replaced: its complete lines are loaded again and replace the whole
+	 * contents of the CollisionsData object, so no row of the old file is left and no row of the
+	 * new file is added twice.
+	 *
+	 * @return number of collisions that were added (all collisions of a replaced file)
+	 * @throws IOException if the file cannot be read
+	 */
+	public synchronized int poll() throws IOException {
+		int added=0;
+		ArrayList<Collision> batch=new ArrayList<Collision>();
+
+		try (RandomAccessFile raf=new RandomAccessFile(file, "r"); FileChannel channel=raf.getChannel()) {
+			long size=channel.size();
+			if (size<offset) {
+				offset=lastLineEnd(channel, size);
+				if (offset>0) {
+					CollisionsLoader.loadParallel(channel, offset, ForkJoinPool.commonPool(), collisions);
+				} else {
+					collisions.buildFromSorted(new Collision[0], 0);
+				}
+				added+=collisions.size();
+			}
+
+			//maps the new part of the file one window at a time
+			while (offset<size) {
+				long length=Math.min(CollisionsLoader.WINDOW, size-offset);
+				MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+				int start=0;
+				int limit=(int) length;
+				while (start<limit) {
+					int end=CollisionsLoader.lineEnd(buffer, start, limit);
+
+					//the line has not been completely written yet (or continues in the next window)
+					if (end==limit) {
+						break;
+					}
+
+					//first line of the file is the header
+					if (offset>0 || start>0) {
+						Collision collision=loader.parseLine(buffer, start, end);
+						if (collision!=null) {
+							batch.add(collision);
+						}
+					}
+					start=end+1;
+
+					//publishes a full batch
+					if (batch.size()==BATCH) {
+						collisions.addAll(batch);
+						added+=batch.size();
+						batch.clear();
+					}
+				}
+
+				//a single line that does not fit in a window cannot be parsed
+				if (start==0) {
+					if (length==CollisionsLoader.WINDOW) {
+						throw new IOException("line longer than "+CollisionsLoader.WINDOW+" bytes in "+file);
+					}
+					break;
+				}
+				offset+=start;
+			}
+		} finally {
+
+			//rows parsed before an error are still added
+			collisions.addAll(batch);
+			added+=batch.size();
+		}
+		return added;
+	}
+
+	/**
+	 * Polls the file until stop() is called. Errors are printed and the file is polled again
+	 * after the interval.
+	 */
+	@Override
+	public void run() {
+		while (!stopped) {
+			try {
+				poll();
+			} catch (IOException ex) {
+				System.err.println("Warning: cannot read "+file+": "+ex.getMessage());
+			}
+			try {
+				Thread.sleep(interval);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Makes run() return after the current poll
+	 */
+	public void stop() {
+		stopped=true;
+	}
+
+	/**
+	 * Finds the byte offset right after the last newline of the first size bytes of a file
+	 *
+	 * @param FileChannel channel of the file
+	 * @param long number of bytes to search
+	 * @return offset right after the last newline, or 0 if there is no newline
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long lastLineEnd(FileChannel channel, long size) throws IOException {
+		ByteBuffer buffer=ByteBuffer.allocate(1<<16);
+		long end=size;
+		while (end>0) {
+			long start=Math.max(0, end-buffer.capacity());
+			buffer.clear();
+			buffer.limit((int) (end-start));
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, start+buffer.position())<0) {
+					throw new EOFException();
+				}
+			}
+			for (int i=(int) (end-start)-1; i>=0; i--) {
+				if (buffer.get(i)=='\n') {
+					return start+i+1;
+				}
+			}
+			end=start;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,672 @@
+package project5;
+
+//imports proper packages needed
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is responsible for loading the collisions input file into a CollisionsData object.
+ * Instead of reading the file line by line and splitting every line into Strings, the file is
+ * memory-mapped and the bytes of each row are scanned directly. Only the columns used by the
+ * Collision class (date, zip, injured/killed counts, and key) are parsed, and numbers and dates
+ * are converted straight into ints.
+ *
+ * @author Nanako Chung
+ */
+public class CollisionsLoader {
+
+	//columns of the input file that are used by the Collision class
+	private static final int DATE=0;
+	private static final int ZIP=3;
+	private static final int PERSONS_INJURED=10;
+	private static final int MOTORISTS_KILLED=17;
+	private static final int KEY=23;
+
+	//a valid row has between 24 and 29 entries (same rule as the Collision constructor)
+	private static final int MIN_ENTRIES=24;
+	private static final int MAX_ENTRIES=29;
+
+	//largest part of the file that is mapped into memory at once
+	static final long WINDOW=1L<<28;
+
+	//start and end (exclusive) of the content of every used column of the current row
+	private final int[] starts=new int[KEY+1];
+	private final int[] ends=new int[KEY+1];
+
+	//reused buffers for the injured/killed counts and for the bytes of the zip and key columns
+	private final int[] counts=new int[8];
+	private byte[] keyBytes=new byte[32];
+
+	//date of the previous row, shared with the next row if it has the same date
+	private Date lastDate;
+
+	/**
+	 * Loads all valid rows of the given file (skipping the header line) into collisions.
+	 * Rows that are not valid are skipped, just like in CollisionInfo.
+	 *
+	 * @param File file to be loaded
+	 * @param CollisionsData object the collisions are added to
+	 * @return number of collisions that were added
+	 * @throws IOException if the file cannot be read
+	 */
+	public static int load(File file, CollisionsData collisions) throws IOException {
+
+		//parser that is reused for every row of the file
+		CollisionsLoader loader=new CollisionsLoader();
+		int added=0;
+
+		try (RandomAccessFile raf=new RandomAccessFile(file, "r"); FileChannel channel=raf.getChannel()) {
+			long size=channel.size();
+			long position=0;
+			boolean header=true;
+
+			//maps the file one window at a time and parses all complete lines of the window
+			while (position<size) {
+				long length=Math.min(WINDOW, size-position);
+				boolean last=position+length==size;
+				MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+				int start=0;
+				int limit=(int) length;
+				while (start<limit) {
+					int end=lineEnd(buffer, start, limit);
+
+					//the last line of the window continues in the next window
+					if (end==limit && !last) {
+						break;
+					}
+
+					//first line of the file is the header
+					if (header) {
+						header=false;
+					} else {
+						Collision collision=loader.parseLine(buffer, start, end);
+						if (collision!=null) {
+							collisions.add(collision);
+							added++;
+						}
+					}
+					start=end+1;
+				}
+
+				//a single line that does not fit in a window cannot be parsed
+				if (start==0 && !last) {
+					throw new IOException("line longer than "+WINDOW+" bytes in "+file);
+				}
+				position+=start;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Loads all valid rows of the given file using all available cores (see the overloaded method)
+	 *
+	 * @param File file to be loaded
+	 * @return CollisionsData object holding all valid rows of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static CollisionsData loadParallel(File file) throws IOException {
+		return loadParallel(file, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Loads all valid rows of the given file in parallel. The file is split into chunks at line
+	 * boundaries, every chunk is parsed and sorted by a separate task, the sorted runs are merged
+	 * pairwise, and the AVL tree is built bottom-up from the merged sequence (no rotations).
+	 *
+	 * @param File file to be loaded
+	 * @param ForkJoinPool pool that runs the parsing and merging tasks
+	 * @return CollisionsData object holding all valid rows of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static CollisionsData loadParallel(File file, ForkJoinPool pool) throws IOException {
+		CollisionsData collisions=new CollisionsData();
+		try (RandomAccessFile raf=new RandomAccessFile(file, "r"); FileChannel channel=raf.getChannel()) {
+			loadParallel(channel, channel.size(), pool, collisions);
+		}
+		return collisions;
+	}
+
+	/**
+	 * Loads all valid rows of the first size bytes of a file in parallel and replaces the
+	 * contents of a CollisionsData object with them (see the public method)
+	 *
+	 * @param FileChannel channel of the file
+	 * @param long number of bytes of the file to load (the beginning of a line, or the size of the file)
+	 * @param ForkJoinPool pool that runs the parsing and merging tasks
+	 * @param CollisionsData object whose contents are replaced by the collisions
+	 * @throws IOException if the file cannot be read
+	 */
+	static void loadParallel(FileChannel channel, long size, ForkJoinPool pool, CollisionsData collisions) throws IOException {
+
+		//a few chunks per thread so that threads finishing early can pick up more work, but
+		//never more than half a window per chunk so that every chunk can still be mapped at
+		//once after its bounds are moved to the beginning of the next line
+		long chunks=Math.max(4L*pool.getParallelism(), (size+WINDOW/2-1)/(WINDOW/2));
+		long[] bounds=new long[(int) chunks+1];
+
+		//the first chunk starts after the header line
+		bounds[0]=nextLine(channel, 0, size);
+		for (int i=1; i<chunks; i++) {
+			bounds[i]=Math.max(bounds[i-1], nextLine(channel, size/chunks*i, size));
+		}
+		bounds[(int) chunks]=size;
+
+		//a chunk can only grow past the window size if a single line is half a window long
+		for (int i=1; i<=chunks; i++) {
+			if (bounds[i]-bounds[i-1]>WINDOW) {
+				throw new IOException("line longer than "+WINDOW+" bytes");
+			}
+		}
+
+		//parses and merges all chunks
+		Collision[] sorted;
+		try {
+			sorted=pool.invoke(new ChunkTask(channel, bounds, 0, (int) chunks));
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		collisions.buildFromSorted(sorted, sorted.length);
+	}
+
+	/**
+	 * Finds the start of the first line that begins at or after position
+	 *
+	 * @param FileChannel channel of the file
+	 * @param long position where the search starts
+	 * @param long size of the file
+	 * @return index right after the first '\n' at or after position-1, or size if there is none
+	 * @throws IOException if the file cannot be read
+	 */
+	static long nextLine(FileChannel channel, long position, long size) throws IOException {
+
+		//a chunk that begins right after a line separator does not need to move
+		if (position>0) {
+			position--;
+		}
+
+		ByteBuffer buffer=ByteBuffer.allocate(4096);
+		while (position<size) {
+			buffer.clear();
+			int read=channel.read(buffer, position);
+			if (read<=0) {
+				break;
+			}
+			for (int i=0; i<read; i++) {
+				if (buffer.get(i)=='\n') {
+					return position+i+1;
+				}
+			}
+			position+=read;
+		}
+		return size;
+	}
+
+	/**
+	 * Task that parses a range of chunks of the file into a single sorted array. A single chunk is
+	 * parsed and sorted directly, a larger range is split in half and the two sorted arrays are merged.
+	 */
+	private static class ChunkTask extends RecursiveTask<Collision[]> {
+		private static final long serialVersionUID=1L;
+		private final FileChannel channel;
+		private final long[] bounds;
+		private final int first;
+		private final int last;
+
+		/**
+		 * @param FileChannel channel of the file
+		 * @param long[] start of every chunk (followed by the size of the file)
+		 * @param int first chunk of the range
+		 * @param int last chunk of the range (exclusive)
+		 */
+		private ChunkTask(FileChannel channel, long[] bounds, int first, int last) {
+			this.channel=channel;
+			this.bounds=bounds;
+			this.first=first;
+			this.last=last;
+		}
+
+		@Override
+		protected Collision[] compute() {
+
+			//a single chunk is parsed directly
+			if (last-first==1) {
+				try {
+					return parseChunk(channel, bounds[first], bounds[last]);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+
+			//otherwise both halves are processed in parallel and merged
+			int mid=(first+last)>>>1;
+			ChunkTask left=new ChunkTask(channel, bounds, first, mid);
+			left.fork();
+			Collision[] right=new ChunkTask(channel, bounds, mid, last).compute();
+			return merge(left.join(), right);
+		}
+	}
+
+	/**
+	 * Parses all lines of a chunk of the file and sorts the resulting Collision objects
+	 *
+	 * @param FileChannel channel of the file
+	 * @param long start of the chunk (beginning of a line)
+	 * @param long end of the chunk (beginning of a line, or end of the file)
+	 * @return sorted array of all valid rows of the chunk
+	 * @throws IOException if the file cannot be read
+	 */
+	private static Collision[] parseChunk(FileChannel channel, long start, long end) throws IOException {
+		if (start>=end) {
+			return new Collision[0];
+		}
+
+		//each task uses its own parser
+		CollisionsLoader loader=new CollisionsLoader();
+		ArrayList<Collision> collisions=new ArrayList<Collision>();
+		MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY, start, end-start);
+		int limit=(int) (end-start);
+		int line=0;
+		while (line<limit) {
+			int lineEnd=lineEnd(buffer, line, limit);
+			Collision collision=loader.parseLine(buffer, line, lineEnd);
+			if (collision!=null) {
+				collisions.add(collision);
+			}
+			line=lineEnd+1;
+		}
+
+		Collision[] sorted=collisions.toArray(new Collision[collisions.size()]);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Merges two sorted arrays into one
+	 *
+	 * @param Collision[] first sorted array
+	 * @param Collision[] second sorted array
+	 * @return merged sorted array
+	 */
+	private static Collision[] merge(Collision[] a, Collision[] b) {
+		if (a.length==0) {
+			return b;
+		}
+		if (b.length==0) {
+			return a;
+		}
+
+		//elements of a come first when they are equal, so the merge is stable
+		Collision[] merged=new Collision[a.length+b.length];
+		int i=0;
+		int j=0;
+		int k=0;
+		while (i<a.length && j<b.length) {
+			if (a[i].compareTo(b[j])<=0) {
+				merged[k++]=a[i++];
+			} else {
+				merged[k++]=b[j++];
+			}
+		}
+		System.arraycopy(a, i, merged, k, a.length-i);
+		System.arraycopy(b, j, merged, k+a.length-i, b.length-j);
+		return merged;
+	}
+
+	/**
+	 * Finds the end of the line that begins at start
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int start of the line
+	 * @param int limit of the buffer
+	 * @return index of the '\n' that ends the line, or limit if there is none
+	 */
+	static int lineEnd(ByteBuffer buffer, int start, int limit) {
+		for (int i=start; i<limit; i++) {
+			if (buffer.get(i)=='\n') {
+				return i;
+			}
+		}
+		return limit;
+	}
+
+	/**
+	 * Parses a single row of the file into a Collision. Follows the same rules as
+	 * CollisionInfo.splitCSVLine: entries are separated by commas, quotes (regular or smart)
+	 * surround entries that may contain commas, whitespace between entries is skipped, and
+	 * the last entry is only counted if it is not empty. Rows that cannot be handled on the
+	 * bytes (non-ASCII characters, or whitespace that splitCSVLine would drop from the middle
+	 * of an entry) are parsed with splitCSVLine itself.
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int start of the row
+	 * @param int end of the row (exclusive, without the line separator)
+	 * @return Collision object, or null if the row is not valid
+	 */
+	Collision parseLine(ByteBuffer buffer, int start, int end) {
+
+		//ignores the carriage return of Windows line separators
+		if (end>start && buffer.get(end-1)=='\r') {
+			end--;
+		}
+
+		//empty lines are skipped
+		if (end==start) {
+			return null;
+		}
+
+		//finds the content of every entry that is needed
+		int column=0;
+		boolean insideQuotes=false;
+		boolean insideEntry=false;
+		boolean appended=false;
+		boolean skipped=false;
+		int first=-1;
+		int last=-1;
+		int i=start;
+		while (i<end) {
+			byte b=buffer.get(i);
+			int quote=quoteLength(buffer, i, end);
+			if (quote>0) {
+
+				//quotes are not part of the entry, but an opening quote starts the entry
+				if (skipped) {
+					return parseText(buffer, start, end);
+				}
+				insideQuotes=!insideQuotes;
+				insideEntry=insideQuotes;
+				if (first<0) {
+					first=i;
+				}
+				last=i+quote;
+				i+=quote;
+				continue;
+			}
+			if (b<0) {
+
+				//any other non-ASCII character is left to splitCSVLine
+				return parseText(buffer, start, end);
+			}
+			if (b==',' && !insideQuotes) {
+
+				//end of entry found
+				if (column<=KEY) {
+					starts[column]=first<0 ? i : first;
+					ends[column]=first<0 ? i : last;
+				}
+				column++;
+				insideEntry=false;
+				appended=false;
+				skipped=false;
+				first=-1;
+				last=-1;
+			} else if (isWhitespace(b) && !insideQuotes && !insideEntry) {
+
+				//whitespace between entries is skipped
+				skipped=first>=0;
+			} else {
+
+				//everything else belongs to the entry (whitespace only once the entry has started)
+				if (skipped) {
+					return parseText(buffer, start, end);
+				}
+				if (first<0) {
+					first=i;
+				}
+				if (!isWhitespace(b)) {
+					insideEntry=true;
+				}
+				last=i+1;
+				appended=true;
+			}
+			i++;
+		}
+
+		//the last entry is only counted if it is not empty, and it is trimmed
+		if (appended) {
+			if (column<=KEY) {
+				while (first<last) {
+					int quote=quoteLength(buffer, first, last);
+					if (quote==0 && !isControl(buffer.get(first))) {
+						break;
+					}
+					first+=Math.max(quote, 1);
+				}
+				while (last>first) {
+					int quote=last-first>=3 && quoteLength(buffer, last-3, last)==3 ? 3 : 0;
+					if (buffer.get(last-1)=='"') {
+						quote=1;
+					}
+					if (quote==0 && !isControl(buffer.get(last-1))) {
+						break;
+					}
+					last-=Math.max(quote, 1);
+				}
+				starts[column]=first;
+				ends[column]=last;
+			}
+			column++;
+		}
+
+		//if a line has less than 24 entries or more than 29, it is not valid
+		if (column<MIN_ENTRIES || column>MAX_ENTRIES) {
+			return null;
+		}
+
+		//zip code has to be exactly five digits
+		if (digits(buffer, starts[ZIP], ends[ZIP])!=5) {
+			return null;
+		}
+
+		try {
+			//parses the injured/killed counts in the order of the columns
+			for (int c=PERSONS_INJURED; c<=MOTORISTS_KILLED; c++) {
+				counts[c-PERSONS_INJURED]=parseInt(buffer, starts[c], ends[c]);
+			}
+
+			return new Collision(parseDate(buffer, starts[DATE], ends[DATE]), parseInt(buffer, starts[ZIP], ends[ZIP]),
+					text(buffer, starts[KEY], ends[KEY]), counts[0], counts[1], counts[2], counts[3],
+					counts[4], counts[5], counts[6], counts[7]);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Parses a row the same way as CollisionInfo, by splitting it with splitCSVLine
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int start of the row
+	 * @param int end of the row (exclusive, without the line separator)
+	 * @return Collision object, or null if the row is not valid
+	 */
+	private Collision parseText(ByteBuffer buffer, int start, int end) {
+		byte[] bytes=new byte[end-start];
+		for (int i=start; i<end; i++) {
+			bytes[i-start]=buffer.get(i);
+		}
+		try {
+			return new Collision(CollisionInfo.splitCSVLine(new String(bytes, StandardCharsets.UTF_8)));
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determines whether a byte is an ASCII whitespace character (same as Character.isWhitespace)
+	 *
+	 * @param byte b
+	 * @return true if b is whitespace, false otherwise
+	 */
+	private static boolean isWhitespace(byte b) {
+		return b==' ' || b>='\t' && b<='\r' || b>=0x1C && b<=0x1F;
+	}
+
+	/**
+	 * Determines whether a byte is removed by String.trim (any ASCII character up to the space)
+	 *
+	 * @param byte b
+	 * @return true if b is removed by trim, false otherwise
+	 */
+	private static boolean isControl(byte b) {
+		return b>=0 && b<=' ';
+	}
+
+	/**
+	 * Determines whether a quote (a regular quote, or a UTF-8 encoded smart quote) starts at index i
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int index i
+	 * @param int end of the row
+	 * @return number of bytes of the quote, or 0 if there is no quote at i
+	 */
+	private static int quoteLength(ByteBuffer buffer, int i, int end) {
+		byte b=buffer.get(i);
+		if (b=='"') {
+			return 1;
+		}
+
+		//smart quotes \u201C and \u201D are encoded as E2 80 9C and E2 80 9D
+		if (b==(byte) 0xE2 && i+2<end && buffer.get(i+1)==(byte) 0x80
+				&& (buffer.get(i+2)==(byte) 0x9C || buffer.get(i+2)==(byte) 0x9D)) {
+			return 3;
+		}
+		return 0;
+	}
+
+	/**
+	 * Counts the digits of an entry
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int start of the entry
+	 * @param int end of the entry
+	 * @return number of digits, or -1 if the entry contains anything other than digits and quotes
+	 */
+	private static int digits(ByteBuffer buffer, int start, int end) {
+		int count=0;
+		int i=start;
+		while (i<end) {
+			int quote=quoteLength(buffer, i, end);
+			if (quote>0) {
+				i+=quote;
+				continue;
+			}
+			byte b=buffer.get(i);
+			if (b<'0' || b>'9') {
+				return -1;
+			}
+			count++;
+			i++;
+		}
+		return count;
+	}
+
+	/**
+	 * Parses a number the same way as Integer.parseInt (with an optional sign). Negative numbers
+	 * other than zero are rejected, since no count can be negative.
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int start of the entry
+	 * @param int end of the entry
+	 * @return the number
+	 * @throws IllegalArgumentException if the entry is empty, not a number, or negative
+	 */
+	private static int parseInt(ByteBuffer buffer, int start, int end) throws IllegalArgumentException {
+		long value=0;
+		int count=0;
+		boolean signed=false;
+		boolean negative=false;
+		int i=start;
+		while (i<end) {
+			int quote=quoteLength(buffer, i, end);
+			if (quote>0) {
+				i+=quote;
+				continue;
+			}
+			byte b=buffer.get(i);
+			if ((b=='+' || b=='-') && count==0 && !signed) {
+				signed=true;
+				negative=b=='-';
+				i++;
+				continue;
+			}
+			if (b<'0' || b>'9') {
+				throw new IllegalArgumentException();
+			}
+			value=value*10+(b-'0');
+			if (value>Integer.MAX_VALUE) {
+				throw new IllegalArgumentException();
+			}
+			count++;
+			i++;
+		}
+		if (count==0 || negative && value!=0) {
+			throw new IllegalArgumentException();
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Parses a date in the format mm/dd/yyyy (quotes are ignored)
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int start of the entry
+	 * @param int end of the entry
+	 * @return Date object
+	 * @throws IllegalArgumentException if the entry is not a valid date
+	 */
+	private Date parseDate(ByteBuffer buffer, int start, int end) throws IllegalArgumentException {
+		int quote=start<end ? quoteLength(buffer, start, end) : 0;
+		if (quote>0 && end-start>=2*quote && quoteLength(buffer, end-quote, end)==quote) {
+			start+=quote;
+			end-=quote;
+		}
+
+		//quotes inside of the date are dropped, just like splitCSVLine does
+		int packed;
+		try {
+			packed=Date.parsePacked(buffer, start, end);
+		} catch (IllegalArgumentException ex) {
+			String date=text(buffer, start, end);
+			packed=Date.parsePacked(date, 0, date.length());
+		}
+
+		//rows of the same day usually follow each other, so they share a single Date object
+		if (lastDate==null || lastDate.toPacked()!=packed) {
+			lastDate=Date.ofPacked(packed);
+		}
+		return lastDate;
+	}
+
+	/**
+	 * Creates a String out of an entry (without the quotes)
+	 *
+	 * @param ByteBuffer buffer holding the file
+	 * @param int start of the entry
+	 * @param int end of the entry
+	 * @return String of the entry
+	 */
+	private String text(ByteBuffer buffer, int start, int end) {
+		if (keyBytes.length<end-start) {
+			keyBytes=new byte[end-start];
+		}
+		int length=0;
+		int i=start;
+		while (i<end) {
+			int quote=quoteLength(buffer, i, end);
+			if (quote>0) {
+				i+=quote;
+				continue;
+			}
+			keyBytes[length++]=buffer.get(i++);
+		}
+		return new String(keyBytes, 0, length, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,213 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+
+/**
+ * This class is responsible for keeping precomputed daily totals of collisions: per zip code
+ * and per day, the number of collisions and the eight killed/injured counts, together with
+ * prefix sums over the days. A report for a zip code and date range is then the difference
+ * of two prefix sums, no matter how many collisions the range contains.
+ *
+ * Adding or removing a collision only changes the daily totals of its zip code and day; the
+ * prefix sums of that zip code are recalculated the next time the zip code is queried.
+ *
+ * @author Nanako Chung
+ */
+public class CollisionsRollup {
+
+	//daily totals of every zip code that has collisions
+	private final HashMap<String, Buckets> zips;
+
+	/**
+	 * This is a default constructor that creates an empty rollup.
+	 */
+	public CollisionsRollup() {
+		this.zips=new HashMap<String, Buckets>();
+	}
+
+	/**
+	 * Adds a collision to the totals of its zip code and day. If item is null, nothing changes.
+	 *
+	 * @param Collision item to be added
+	 */
+	public synchronized void add(Collision item) {
+		if (item==null) {
+			return;
+		}
+		Buckets buckets=zips.get(item.getZip());
+		if (buckets==null) {
+			buckets=new Buckets(item.getDate().toDaySlot());
+			zips.put(item.getZip(), buckets);
+		}
+		buckets.add(item, 1);
+	}
+
+	/**
+	 * Adds a batch of collisions to the totals at once, so that no report sees only part of
+	 * the batch (nulls are ignored)
+	 *
+	 * @param Iterable collisions to be added
+	 */
+	public synchronized void addAll(Iterable<Collision> items) {
+		for (Collision item : items) {
+			add(item);
+		}
+	}
+
+	/**
+	 * Removes a collision (that was added before) from the totals of its zip code and day. If
+	 * item is null, nothing changes.
+	 *
+	 * @param Collision item to be removed
+	 */
+	public synchronized void remove(Collision item) {
+		if (item==null) {
+			return;
+		}
+		Buckets buckets=zips.get(item.getZip());
+		if (buckets!=null) {
+			buckets.add(item, -1);
+		}
+	}
+
+	/**
+	 * Removes all collisions from the rollup
+	 */
+	public synchronized void clear() {
+		zips.clear();
+	}
+
+	/**
+	 * Sums the number of collisions and the killed/injured counts for a zip code and date range
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return report with the totals
+	 */
+	public synchronized CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		CollisionReport report=new CollisionReport(zip, dateBegin, dateEnd);
+		Buckets buckets=zips.get(zip);
+		if (buckets==null) {
+			return report;
+		}
+
+		//only the days that have buckets can have collisions
+		int first=Math.max(dateBegin.toDaySlot()-buckets.firstDay, 0);
+		int last=Math.min(dateEnd.toDaySlot()-buckets.firstDay, buckets.days-1);
+		if (first>last) {
+			return report;
+		}
+
+		//totals of the range are the totals before its end minus the totals before its start
+		int[] prefix=buckets.prefix();
+		int end=(last+1)*CollisionsData.TOTALS;
+		int start=first*CollisionsData.TOTALS;
+		report.add(prefix[end+CollisionsData.COUNT]-prefix[start+CollisionsData.COUNT],
+				prefix[end+CollisionsData.PERSONS_KILLED]-prefix[start+CollisionsData.PERSONS_KILLED],
+				prefix[end+CollisionsData.PEDESTRIANS_KILLED]-prefix[start+CollisionsData.PEDESTRIANS_KILLED],
+				prefix[end+CollisionsData.CYCLISTS_KILLED]-prefix[start+CollisionsData.CYCLISTS_KILLED],
+				prefix[end+CollisionsData.MOTORISTS_KILLED]-prefix[start+CollisionsData.MOTORISTS_KILLED],
+				prefix[end+CollisionsData.PERSONS_INJURED]-prefix[start+CollisionsData.PERSONS_INJURED],
+				prefix[end+CollisionsData.PEDESTRIANS_INJURED]-prefix[start+CollisionsData.PEDESTRIANS_INJURED],
+				prefix[end+CollisionsData.CYCLISTS_INJURED]-prefix[start+CollisionsData.CYCLISTS_INJURED],
+				prefix[end+CollisionsData.MOTORISTS_INJURED]-prefix[start+CollisionsData.MOTORISTS_INJURED]);
+		return report;
+	}
+
+	/**
+	 * The daily totals of a single zip code for a contiguous range of days, and their prefix sums.
+	 */
+	private static class Buckets {
+
+		//first day slot (see Date.toDaySlot) and number of day slots that have buckets
+		private int firstDay;
+		private int days;
+
+		//TOTALS ints per day, indexed by CollisionsData.COUNT, ..., CollisionsData.MOTORISTS_INJURED
+		private int[] daily;
+
+		//totals of all days before every day (TOTALS ints for each of days+1 days), and whether
+		//a daily total changed since they were calculated
+		private int[] prefix;
+		private boolean stale;
+
+		/**
+		 * This constructor creates buckets for a single day
+		 *
+		 * @param int day slot (see Date.toDaySlot)
+		 */
+		private Buckets(int day) {
+			this.firstDay=day;
+			this.days=1;
+			this.daily=new int[CollisionsData.TOTALS];
+			this.stale=true;
+		}
+
+		/**
+		 * Adds (sign 1) or subtracts (sign -1) a collision to or from the totals of its day
+		 *
+		 * @param Collision object c
+		 * @param int sign
+		 */
+		private void add(Collision c, int sign) {
+			int day=c.getDate().toDaySlot();
+			if (day<firstDay || day>=firstDay+days) {
+				cover(day);
+			}
+			int at=(day-firstDay)*CollisionsData.TOTALS;
+			daily[at+CollisionsData.COUNT]+=sign;
+			daily[at+CollisionsData.PERSONS_KILLED]+=sign*c.getPersonsKilled();
+			daily[at+CollisionsData.PEDESTRIANS_KILLED]+=sign*c.getPedestriansKilled();
+			daily[at+CollisionsData.CYCLISTS_KILLED]+=sign*c.getCyclistsKilled();
+			daily[at+CollisionsData.MOTORISTS_KILLED]+=sign*c.getMotoristsKilled();
+			daily[at+CollisionsData.PERSONS_INJURED]+=sign*c.getPersonsInjured();
+			daily[at+CollisionsData.PEDESTRIANS_INJURED]+=sign*c.getPedestriansInjured();
+			daily[at+CollisionsData.CYCLISTS_INJURED]+=sign*c.getCyclistsInjured();
+			daily[at+CollisionsData.MOTORISTS_INJURED]+=sign*c.getMotoristsInjured();
+			stale=true;
+		}
+
+		/**
+		 * Grows the range of days so that it covers the given day. The range grows by at least
+		 * half of its size, so that collisions added in date order do not copy the buckets every time.
+		 *
+		 * @param int day slot (see Date.toDaySlot)
+		 */
+		private void cover(int day) {
+			int grow=Math.max(days/2, 1);
+			int newFirst=firstDay;
+			int newDays=days;
+			if (day<firstDay) {
+				newFirst=Math.min(day, firstDay-grow);
+				newDays+=firstDay-newFirst;
+			} else {
+				newDays=Math.max(day-firstDay+1, days+grow);
+			}
+			int[] newDaily=new int[newDays*CollisionsData.TOTALS];
+			System.arraycopy(daily, 0, newDaily, (firstDay-newFirst)*CollisionsData.TOTALS, days*CollisionsData.TOTALS);
+			firstDay=newFirst;
+			days=newDays;
+			daily=newDaily;
+		}
+
+		/**
+		 * Returns the prefix sums of the daily totals, calculating them if a daily total changed
+		 *
+		 * @return prefix sums
+		 */
+		private int[] prefix() {
+			if (stale) {
+				if (prefix==null || prefix.length!=(days+1)*CollisionsData.TOTALS) {
+					prefix=new int[(days+1)*CollisionsData.TOTALS];
+				}
+				for (int i=0; i<days*CollisionsData.TOTALS; i++) {
+					prefix[i+CollisionsData.TOTALS]=prefix[i]+daily[i];
+				}
+				stale=false;
+			}
+			return prefix;
+		}
+	}
+}
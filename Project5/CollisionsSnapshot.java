@@ -0,0 +1,287 @@
+package project5;
+
+//imports proper packages needed
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class is responsible for saving a CollisionsData object to a compact binary file and
+ * loading it back, so that a restart does not have to parse the whole input file again.
+ *
+ * The file starts with a header (magic number, format version, number of records, size of
+ * the key area, and a CRC32 checksum of everything after the header). It is followed by one
+ * fixed-width record per collision in sorted order (zip code, date as yyyymmdd, the eight
+ * injured/killed counts, and the offset and length of the key), and by the key area that
+ * holds the UTF-8 bytes of all keys. Loading memory-maps the file and builds the balanced
+ * tree bottom-up in O(n), without inserting the records one by one.
+ *
+ * @author Nanako Chung
+ */
+public class CollisionsSnapshot {
+
+	//"COLL" in ASCII
+	private static final int MAGIC=0x434F4C4C;
+
+	//version of the file format (increase it when the format or the order of the records changes;
+	//version 2 sorts numeric keys by value and before all other keys)
+	private static final int VERSION=2;
+
+	//magic, version, records, key area size (ints) and checksum (long)
+	private static final int HEADER=4+4+4+4+8;
+
+	//zip, date, eight counts, key offset (ints) and key length (short)
+	private static final int RECORD=4+4+8*4+4+2;
+
+	//size of the buffer used for writing
+	private static final int BUFFER=1<<16;
+
+	/**
+	 * Writes the contents of a CollisionsData object to a snapshot file. The snapshot is first
+	 * written to a temporary file next to it, which then replaces the file in a single rename,
+	 * so a crash or a failed write never leaves a partial snapshot behind.
+	 *
+	 * @param CollisionsData object to be saved
+	 * @param File file the snapshot is written to (replaced if it exists)
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(CollisionsData collisions, File file) throws IOException {
+
+		//works on a single version of the tree, even if it changes while it is written
+		CollisionsData snapshot=collisions.snapshot();
+
+		File temp=File.createTempFile("."+file.getName()+"-", ".tmp", file.getAbsoluteFile().getParentFile());
+		boolean replaced=false;
+		try {
+			writeRecords(snapshot, temp);
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException ex) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			replaced=true;
+		} finally {
+			if (!replaced) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Writes the header, records, and keys of a snapshot to a new file (see write)
+	 *
+	 * @param CollisionsData version of the tree that does not change while it is written
+	 * @param File empty file the snapshot is written to
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void writeRecords(CollisionsData snapshot, File file) throws IOException {
+		int count=snapshot.size();
+
+		try (RandomAccessFile raf=new RandomAccessFile(file, "rw"); FileChannel channel=raf.getChannel()) {
+
+			//records and keys are written to their own areas of the file
+			ByteBuffer records=ByteBuffer.allocateDirect(BUFFER);
+			ByteBuffer keys=ByteBuffer.allocateDirect(BUFFER);
+			long recordPosition=HEADER;
+			long keyStart=HEADER+(long) count*RECORD;
+			long keyPosition=keyStart;
+			if (keyStart>Integer.MAX_VALUE) {
+				throw new IOException("too many collisions for a single snapshot file");
+			}
+			int keyOffset=0;
+			int written=0;
+
+			for (Collision c : snapshot) {
+				byte[] key=c.getKey().getBytes(StandardCharsets.UTF_8);
+				if (key.length>Short.MAX_VALUE) {
+					throw new IOException("key of "+key.length+" bytes is too long");
+				}
+
+				//makes room in the buffers before they overflow
+				if (records.remaining()<RECORD) {
+					recordPosition=flush(channel, records, recordPosition);
+				}
+				if (keys.remaining()<key.length) {
+					keyPosition=flush(channel, keys, keyPosition);
+				}
+
+				records.putInt(c.getZipCode());
+				records.putInt(c.getDate().toPacked());
+				records.putInt(c.getPersonsInjured());
+				records.putInt(c.getPersonsKilled());
+				records.putInt(c.getPedestriansInjured());
+				records.putInt(c.getPedestriansKilled());
+				records.putInt(c.getCyclistsInjured());
+				records.putInt(c.getCyclistsKilled());
+				records.putInt(c.getMotoristsInjured());
+				records.putInt(c.getMotoristsKilled());
+				records.putInt(keyOffset);
+				records.putShort((short) key.length);
+
+				keys.put(key);
+				keyOffset+=key.length;
+				written++;
+			}
+			flush(channel, records, recordPosition);
+			flush(channel, keys, keyPosition);
+
+			if (written!=count) {
+				throw new IOException("tree changed while the snapshot was written");
+			}
+
+			//checksum of everything after the header
+			if (keyStart+keyOffset>Integer.MAX_VALUE) {
+				throw new IOException("too many collisions for a single snapshot file");
+			}
+			MappedByteBuffer body=channel.map(FileChannel.MapMode.READ_ONLY, HEADER, keyStart+keyOffset-HEADER);
+			long checksum=checksum(body);
+
+			ByteBuffer header=ByteBuffer.allocate(HEADER);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(count);
+			header.putInt(keyOffset);
+			header.putLong(checksum);
+			header.flip();
+			channel.write(header, 0);
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Loads a CollisionsData object from a snapshot file
+	 *
+	 * @param File snapshot file
+	 * @return CollisionsData object with the contents of the snapshot
+	 * @throws IOException if the file cannot be read, is not a snapshot, has a different format
+	 *   version, does not match its checksum, or its records are not valid or not in order
+	 */
+	public static CollisionsData read(File file) throws IOException {
+		try (RandomAccessFile raf=new RandomAccessFile(file, "r"); FileChannel channel=raf.getChannel()) {
+			long size=channel.size();
+			if (size<HEADER) {
+				throw new IOException(file+" is not a collisions snapshot");
+			}
+			if (size>Integer.MAX_VALUE) {
+				throw new IOException(file+" is too large for a collisions snapshot");
+			}
+
+			MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+			//checks the header
+			if (buffer.getInt(0)!=MAGIC) {
+				throw new IOException(file+" is not a collisions snapshot");
+			}
+			if (buffer.getInt(4)!=VERSION) {
+				throw new IOException(file+" has snapshot format version "+buffer.getInt(4)+" instead of "+VERSION);
+			}
+			int count=buffer.getInt(8);
+			int keyBytes=buffer.getInt(12);
+			long checksum=buffer.getLong(16);
+			long keyStart=HEADER+(long) count*RECORD;
+			if (count<0 || keyBytes<0 || keyStart+keyBytes!=size) {
+				throw new IOException(file+" is truncated or damaged");
+			}
+
+			//checks the body
+			buffer.position(HEADER);
+			if (checksum(buffer.slice())!=checksum) {
+				throw new IOException(file+" does not match its checksum");
+			}
+
+			//decodes the records (dates are shared by all records that use them)
+			Collision[] sorted=new Collision[count];
+			Date last=null;
+			int lastDate=-1;
+			byte[] key=new byte[32];
+			for (int i=0; i<count; i++) {
+				int at=HEADER+i*RECORD;
+				int zip=buffer.getInt(at);
+				int packed=buffer.getInt(at+4);
+				if (zip<0 || zip>=ZipCodes.COUNT) {
+					throw new IOException(file+" has an invalid zip code in record "+i);
+				}
+
+				//the key has to lie within the key area
+				int keyOffset=buffer.getInt(at+40);
+				int keyLength=buffer.getShort(at+44);
+				if (keyOffset<0 || keyLength<0 || keyOffset>keyBytes-keyLength) {
+					throw new IOException(file+" has an invalid key in record "+i);
+				}
+
+				//a record that passed the checksum can still hold values that no Collision can have
+				try {
+					if (packed!=lastDate) {
+						last=Date.ofPacked(packed);
+						lastDate=packed;
+					}
+
+					//copies the key out of the key area
+					if (keyLength>key.length) {
+						key=new byte[keyLength];
+					}
+					for (int k=0; k<keyLength; k++) {
+						key[k]=buffer.get((int) keyStart+keyOffset+k);
+					}
+
+					sorted[i]=new Collision(last, zip, new String(key, 0, keyLength, StandardCharsets.UTF_8),
+							buffer.getInt(at+8), buffer.getInt(at+12), buffer.getInt(at+16), buffer.getInt(at+20),
+							buffer.getInt(at+24), buffer.getInt(at+28), buffer.getInt(at+32), buffer.getInt(at+36));
+				} catch (IllegalArgumentException ex) {
+					throw new IOException(file+" has an invalid record "+i, ex);
+				}
+
+				//the tree is built without comparing the records, so they have to be in order
+				if (i>0 && sorted[i-1].compareTo(sorted[i])>0) {
+					throw new IOException(file+" is not in collision order at record "+i);
+				}
+			}
+
+			//the records are stored in order, so the tree is built bottom-up
+			CollisionsData collisions=new CollisionsData();
+			collisions.buildFromSorted(sorted, count);
+			return collisions;
+		}
+	}
+
+	/**
+	 * Writes the contents of a buffer at the given position of the file and clears the buffer
+	 *
+	 * @param FileChannel channel of the file
+	 * @param ByteBuffer buffer to be written
+	 * @param long position in the file
+	 * @return position right after the written bytes
+	 * @throws IOException if the file cannot be written
+	 */
+	private static long flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			position+=channel.write(buffer, position);
+		}
+		buffer.clear();
+		return position;
+	}
+
+	/**
+	 * Calculates the CRC32 checksum of the remaining bytes of a buffer
+	 *
+	 * @param ByteBuffer buffer
+	 * @return checksum
+	 */
+	private static long checksum(ByteBuffer buffer) {
+		CRC32 crc=new CRC32();
+		byte[] bytes=new byte[BUFFER];
+		while (buffer.hasRemaining()) {
+			int length=Math.min(bytes.length, buffer.remaining());
+			buffer.get(bytes, 0, length);
+			crc.update(bytes, 0, length);
+		}
+		return crc.getValue();
+	}
+}
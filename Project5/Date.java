@@ -1,8 +1,6 @@
 package project5;
 
-import java.util.InputMismatchException;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.nio.ByteBuffer;
 
 /**
  * This class represents calendar dates. 
@@ -10,9 +8,10 @@ import java.util.Scanner;
  * @author Joanna Klukowska
  */
 public class Date implements Comparable<Date>{
-	private int year;
-	private int month;
-	private int day;
+
+	// the date packed into a single int as yyyymmdd, so that comparing two dates
+	// is a single int comparison
+	private final int packed;
 	
 	
 	/**
@@ -22,29 +21,9 @@ public class Date implements Comparable<Date>{
 	 * correctly 
 	 */
 	public Date(String s) throws IllegalArgumentException{
-		Scanner tokenizer = new Scanner(s);
-		try {
-			tokenizer.useDelimiter("/");
-			
-			month = tokenizer.nextInt();
-			day = tokenizer.nextInt(); 
-			year = tokenizer.nextInt() ;
-			tokenizer.close();
-		}
-		catch (InputMismatchException ex ) {
-				throw new IllegalArgumentException ( "year, month, day should be numbers"); 
-		}
-		catch (NoSuchElementException ex ){
+		if (s == null)
 			throw new IllegalArgumentException ( "invalid date format"); 
-		}
-		if (month < 1 || month > 12) 
-			throw new IllegalArgumentException ("month < 1 or > 12 detected");
-		if (day < 1 || day > 31) 
-			throw new IllegalArgumentException ("day < 1 or > 31 detected");
-		if (year < 1900 || year > 2020) 
-			throw new IllegalArgumentException ("year < 1900 or > 2020 detected");
-		
-		
+		packed = parsePacked(s, 0, s.length());
 	}
 
 	
@@ -58,20 +37,140 @@ public class Date implements Comparable<Date>{
 	 * correctly 
 	 */
 	public Date(int year, int month, int day)  throws IllegalArgumentException{
-		this.year = year;
-		this.month = month;
-		this.day = day;
-		if (year < 1900 || year > 2020) 
-			throw new IllegalArgumentException ("year < 1900 or > 2020 detected");
+		packed = pack(year, month, day);
+	}
+
+	/**
+	 * Creates a Date object out of a date packed as yyyymmdd (see toPacked). 
+	 * @param packed date as yyyymmdd
+	 * @return Date object for that date
+	 * @throws IllegalArgumentException when packed does not contain valid values
+	 */
+	public static Date ofPacked(int packed) throws IllegalArgumentException{
+		return new Date(packed / 10000, packed / 100 % 100, packed % 100);
+	}
+
+	/**
+	 * Returns this date packed into a single int as yyyymmdd. Packed dates compare
+	 * in the same order as the Date objects.
+	 * @return date as yyyymmdd
+	 */
+	public int toPacked() {
+		return packed;
+	}
+
+	/**
+	 * Parses a string in the format mm/dd/yyyy into a date packed as yyyymmdd
+	 * without creating any objects (unless the string is not valid). 
+	 * @param s characters holding the date
+	 * @param start index of the first character of the date
+	 * @param end index after the last character of the date
+	 * @return date as yyyymmdd
+	 * @throws IllegalArgumentException when s does not contain valid values or is not formatted
+	 * correctly 
+	 */
+	public static int parsePacked(CharSequence s, int start, int end) throws IllegalArgumentException{
+		return parsePacked(s, null, start, end);
+	}
+
+	/**
+	 * Parses bytes in the format mm/dd/yyyy (ASCII digits and slashes) into a date 
+	 * packed as yyyymmdd without creating any objects (unless the bytes are not valid). 
+	 * @param buffer bytes holding the date
+	 * @param start index of the first byte of the date
+	 * @param end index after the last byte of the date
+	 * @return date as yyyymmdd
+	 * @throws IllegalArgumentException when the bytes do not contain valid values or are not
+	 * formatted correctly 
+	 */
+	public static int parsePacked(ByteBuffer buffer, int start, int end) throws IllegalArgumentException{
+		return parsePacked(null, buffer, start, end);
+	}
+
+	/**
+	 * Parses a date in the format mm/dd/yyyy out of either characters or ASCII bytes (exactly 
+	 * one of s and buffer is given), so that both public parsers share one state machine. 
+	 * @param s characters holding the date, or null
+	 * @param buffer bytes holding the date, or null
+	 * @param start index of the first character of the date
+	 * @param end index after the last character of the date
+	 * @return date as yyyymmdd
+	 * @throws IllegalArgumentException when the date does not contain valid values or is not 
+	 * formatted correctly 
+	 */
+	private static int parsePacked(CharSequence s, ByteBuffer buffer, int start, int end) throws IllegalArgumentException{
+		int month = 0, day = 0, year = 0, field = 0, digits = 0, value = 0;
+		for (int i = start; i <= end; i++) {
+			int c = i == end ? '/' : s != null ? s.charAt(i) : buffer.get(i);
+			if (c >= '0' && c <= '9') {
+				// more than 9 digits would not fit in an int
+				if (++digits > 9)
+					throw new IllegalArgumentException ( "year, month, day should be numbers"); 
+				value = value * 10 + (c - '0');
+			}
+			else if (c == '/') {
+				if (digits == 0)
+					throw new IllegalArgumentException ( "invalid date format"); 
+				if (field == 0) month = value;
+				else if (field == 1) day = value;
+				else if (field == 2) year = value;
+				else throw new IllegalArgumentException ( "invalid date format"); 
+				field++;
+				digits = 0;
+				value = 0;
+			}
+			else
+				throw new IllegalArgumentException ( "year, month, day should be numbers"); 
+		}
+		if (field != 3)
+			throw new IllegalArgumentException ( "invalid date format"); 
+		return pack(year, month, day);
+	}
+
+	/**
+	 * Checks year, month and day and packs them into a single int as yyyymmdd. 
+	 * @param year year for this date
+	 * @param month month for this date 
+	 * @param day day for this date 
+	 * @return date as yyyymmdd
+	 * @throws IllegalArgumentException when the values are not valid
+	 */
+	private static int pack(int year, int month, int day) throws IllegalArgumentException{
 		if (month < 1 || month > 12) 
 			throw new IllegalArgumentException ("month < 1 or > 12 detected");
 		if (day < 1 || day > 31) 
 			throw new IllegalArgumentException ("day < 1 or > 31 detected");
-		
+		if (year < 1900 || year > 2020) 
+			throw new IllegalArgumentException ("year < 1900 or > 2020 detected");
+		return year * 10000 + month * 100 + day;
 	}
 
 
 
+	/**
+	 * Returns the year of this date.
+	 * @return year
+	 */
+	public int getYear() {
+		return packed / 10000;
+	}
+
+	/**
+	 * Returns the month of this date.
+	 * @return month (1-12)
+	 */
+	public int getMonth() {
+		return packed / 100 % 100;
+	}
+
+	/**
+	 * Returns the day of the month of this date.
+	 * @return day (1-31)
+	 */
+	public int getDay() {
+		return packed % 100;
+	}
+
 	/**
 	 * Compares two Date objects for equality.
 	 * @param obj the other Date object
@@ -86,17 +185,31 @@ public class Date implements Comparable<Date>{
 		if (!(obj instanceof Date))
 			return false;
 		Date other = (Date) obj;
-		if (day != other.day)
-			return false;
-		if (month != other.month)
-			return false;
-		if (year != other.year)
-			return false;
-		return true;
+		return packed == other.packed;
+	}
+
+	/**
+	 * Returns a hash code that is consistent with equals.
+	 * @return hash code of this date
+	 */
+	@Override
+	public int hashCode() {
+		return packed;
 	}
 
 	
 
+	/**
+	 * Returns the position of this date in a sequence that has 31 days for every month, so 
+	 * that dates can be stored as plain ints and used as array indexes. Unlike a count of 
+	 * calendar days, the slots follow compareTo for every date this class accepts, including 
+	 * days such as 06/31 that no calendar month has. 
+	 * @return (year * 12 + month - 1) * 31 + day - 1
+	 */
+	public int toDaySlot() {
+		return (getYear() * 12 + getMonth() - 1) * 31 + getDay() - 1;
+	}
+
 	/**
 	 * Returns string representation of this Date object in the format
 	 * mm/dd/yyy.
@@ -104,7 +217,10 @@ public class Date implements Comparable<Date>{
 	 */
 	@Override
 	public String toString() {
-		return String.format("%02d/%02d/%4d",month, day, year);
+		int month = getMonth(), day = getDay();
+		char[] s = {(char) ('0' + month / 10), (char) ('0' + month % 10), '/',
+				(char) ('0' + day / 10), (char) ('0' + day % 10), '/'};
+		return new String(s) + getYear();
 	}
 	
 	
@@ -116,11 +232,7 @@ public class Date implements Comparable<Date>{
 	 */
 	@Override
 	public int compareTo(Date o) {
-		if (this.year != o.year) 
-			return this.year - o.year;
-		if (this.month != o.month)
-			return this.month - o.month;
-		return this.day - o.day; 
+		return Integer.compare(this.packed, o.packed);
 	}
 	
 	
@@ -0,0 +1,425 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+
+/**
+ * This class is a CollisionIndex in the form of a red-black tree (the same algorithm as
+ * java.util.TreeMap, with parent links and no recursion). A red-black tree is less strictly
+ * balanced than an AVL tree, so it rotates less often when collisions are added or removed,
+ * but its nodes do not keep subtree totals: a report visits every collision in its range.
+ *
+ * @author Nanako Chung
+ */
+public class RedBlackCollisionIndex implements CollisionIndex {
+
+	//root of tree and number of collisions
+	private Node root;
+	private int size;
+
+	/**
+	 * This is a default constructor that creates an empty tree.
+	 */
+	public RedBlackCollisionIndex() {
+		this.root=null;
+		this.size=0;
+	}
+
+	@Override
+	public synchronized void add(Collision item) {
+		if (item==null) {
+			return;
+		}
+
+		//finds the parent of the new node (equal collisions go to the right)
+		Node parent=null;
+		Node node=root;
+		boolean left=false;
+		while (node!=null) {
+			parent=node;
+			left=node.data.compareTo(item)>0;
+			node=left ? node.left : node.right;
+		}
+
+		Node added=new Node(item, parent);
+		if (parent==null) {
+			root=added;
+		} else if (left) {
+			parent.left=added;
+		} else {
+			parent.right=added;
+		}
+		size++;
+		fixAfterAdd(added);
+	}
+
+	@Override
+	public synchronized void addAll(Iterable<Collision> items) {
+		for (Collision item : items) {
+			add(item);
+		}
+	}
+
+	@Override
+	public synchronized boolean remove(Collision target) {
+		if (target==null) {
+			return false;
+		}
+		Node node=root;
+		while (node!=null) {
+			int cmp=target.compareTo(node.data);
+			if (cmp==0) {
+				delete(node);
+				return true;
+			}
+			node=cmp<0 ? node.left : node.right;
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		CollisionReport report=new CollisionReport(zip, dateBegin, dateEnd);
+		int zipCode=CollisionsData.queryZip(zip);
+		if (zipCode<0) {
+			return report;
+		}
+		long begin=Collision.sortKey(zipCode, dateBegin);
+		long end=Collision.sortKey(zipCode, dateEnd);
+
+		//finds the first node that is not before the range
+		Node first=null;
+		Node node=root;
+		while (node!=null) {
+			if (node.data.getSortKey()<begin) {
+				node=node.right;
+			} else {
+				first=node;
+				node=node.left;
+			}
+		}
+
+		//visits the nodes in order until the end of the range
+		for (node=first; node!=null && node.data.getSortKey()<=end; node=successor(node)) {
+			report.add(node.data);
+		}
+		return report;
+	}
+
+	/**
+	 * Returns an iterator over the collisions in ascending order. The tree should not be changed
+	 * while it is being iterated over.
+	 *
+	 * @return Iterator of Collision objects
+	 */
+	@Override
+	public Iterator<Collision> iterator() {
+		Node first=root;
+		while (first!=null && first.left!=null) {
+			first=first.left;
+		}
+		final Node start=first;
+		return new Iterator<Collision>() {
+			private Node next=start;
+
+			@Override
+			public boolean hasNext() {
+				return next!=null;
+			}
+
+			@Override
+			public Collision next() {
+				if (next==null) {
+					throw new NoSuchElementException();
+				}
+				Collision data=next.data;
+				next=successor(next);
+				return data;
+			}
+		};
+	}
+
+	/**
+	 * Removes a node from the tree. A node with two children takes the data of its successor,
+	 * whose node (with at most one child) is removed instead.
+	 *
+	 * @param Node node to be removed
+	 */
+	private void delete(Node node) {
+		size--;
+		if (node.left!=null && node.right!=null) {
+			Node next=successor(node);
+			node.data=next.data;
+			node=next;
+		}
+
+		Node replacement=node.left!=null ? node.left : node.right;
+		if (replacement!=null) {
+
+			//the child takes the place of the node
+			replacement.parent=node.parent;
+			if (node.parent==null) {
+				root=replacement;
+			} else if (node==node.parent.left) {
+				node.parent.left=replacement;
+			} else {
+				node.parent.right=replacement;
+			}
+			node.left=null;
+			node.right=null;
+			node.parent=null;
+			if (!node.red) {
+				fixAfterDelete(replacement);
+			}
+		} else if (node.parent==null) {
+			root=null;
+		} else {
+
+			//a leaf is used as the starting point of the fix before it is unlinked
+			if (!node.red) {
+				fixAfterDelete(node);
+			}
+			if (node.parent!=null) {
+				if (node==node.parent.left) {
+					node.parent.left=null;
+				} else if (node==node.parent.right) {
+					node.parent.right=null;
+				}
+				node.parent=null;
+			}
+		}
+	}
+
+	/**
+	 * Restores the red-black properties after a node was added
+	 *
+	 * @param Node added node
+	 */
+	private void fixAfterAdd(Node node) {
+		node.red=true;
+		while (node!=null && node!=root && node.parent.red) {
+			Node parent=parentOf(node);
+			Node grandparent=parentOf(parent);
+			if (parent==leftOf(grandparent)) {
+				Node uncle=rightOf(grandparent);
+				if (isRed(uncle)) {
+					setRed(parent, false);
+					setRed(uncle, false);
+					setRed(grandparent, true);
+					node=grandparent;
+				} else {
+					if (node==rightOf(parent)) {
+						node=parent;
+						rotateLeft(node);
+					}
+					setRed(parentOf(node), false);
+					setRed(parentOf(parentOf(node)), true);
+					rotateRight(parentOf(parentOf(node)));
+				}
+			} else {
+				Node uncle=leftOf(grandparent);
+				if (isRed(uncle)) {
+					setRed(parent, false);
+					setRed(uncle, false);
+					setRed(grandparent, true);
+					node=grandparent;
+				} else {
+					if (node==leftOf(parent)) {
+						node=parent;
+						rotateRight(node);
+					}
+					setRed(parentOf(node), false);
+					setRed(parentOf(parentOf(node)), true);
+					rotateLeft(parentOf(parentOf(node)));
+				}
+			}
+		}
+		root.red=false;
+	}
+
+	/**
+	 * Restores the red-black properties after a black node was removed
+	 *
+	 * @param Node node that took the place of the removed node
+	 */
+	private void fixAfterDelete(Node node) {
+		while (node!=root && !isRed(node)) {
+			if (node==leftOf(parentOf(node))) {
+				Node sibling=rightOf(parentOf(node));
+				if (isRed(sibling)) {
+					setRed(sibling, false);
+					setRed(parentOf(node), true);
+					rotateLeft(parentOf(node));
+					sibling=rightOf(parentOf(node));
+				}
+				if (!isRed(leftOf(sibling)) && !isRed(rightOf(sibling))) {
+					setRed(sibling, true);
+					node=parentOf(node);
+				} else {
+					if (!isRed(rightOf(sibling))) {
+						setRed(leftOf(sibling), false);
+						setRed(sibling, true);
+						rotateRight(sibling);
+						sibling=rightOf(parentOf(node));
+					}
+					setRed(sibling, isRed(parentOf(node)));
+					setRed(parentOf(node), false);
+					setRed(rightOf(sibling), false);
+					rotateLeft(parentOf(node));
+					node=root;
+				}
+			} else {
+				Node sibling=leftOf(parentOf(node));
+				if (isRed(sibling)) {
+					setRed(sibling, false);
+					setRed(parentOf(node), true);
+					rotateRight(parentOf(node));
+					sibling=leftOf(parentOf(node));
+				}
+				if (!isRed(rightOf(sibling)) && !isRed(leftOf(sibling))) {
+					setRed(sibling, true);
+					node=parentOf(node);
+				} else {
+					if (!isRed(leftOf(sibling))) {
+						setRed(rightOf(sibling), false);
+						setRed(sibling, true);
+						rotateLeft(sibling);
+						sibling=leftOf(parentOf(node));
+					}
+					setRed(sibling, isRed(parentOf(node)));
+					setRed(parentOf(node), false);
+					setRed(leftOf(sibling), false);
+					rotateRight(parentOf(node));
+					node=root;
+				}
+			}
+		}
+		setRed(node, false);
+	}
+
+	/**
+	 * Rotates a node down to the left (its right child takes its place)
+	 *
+	 * @param Node node
+	 */
+	private void rotateLeft(Node node) {
+		if (node==null) {
+			return;
+		}
+		Node child=node.right;
+		node.right=child.left;
+		if (child.left!=null) {
+			child.left.parent=node;
+		}
+		child.parent=node.parent;
+		if (node.parent==null) {
+			root=child;
+		} else if (node.parent.left==node) {
+			node.parent.left=child;
+		} else {
+			node.parent.right=child;
+		}
+		child.left=node;
+		node.parent=child;
+	}
+
+	/**
+	 * Rotates a node down to the right (its left child takes its place)
+	 *
+	 * @param Node node
+	 */
+	private void rotateRight(Node node) {
+		if (node==null) {
+			return;
+		}
+		Node child=node.left;
+		node.left=child.right;
+		if (child.right!=null) {
+			child.right.parent=node;
+		}
+		child.parent=node.parent;
+		if (node.parent==null) {
+			root=child;
+		} else if (node.parent.right==node) {
+			node.parent.right=child;
+		} else {
+			node.parent.left=child;
+		}
+		child.right=node;
+		node.parent=child;
+	}
+
+	/**
+	 * Finds the node that follows a node in order
+	 *
+	 * @param Node node
+	 * @return next node, or null if node is the last one
+	 */
+	private static Node successor(Node node) {
+		if (node.right!=null) {
+			node=node.right;
+			while (node.left!=null) {
+				node=node.left;
+			}
+			return node;
+		}
+		Node parent=node.parent;
+		while (parent!=null && node==parent.right) {
+			node=parent;
+			parent=parent.parent;
+		}
+		return parent;
+	}
+
+	//helpers that treat null as a black node without children (as the fixes expect)
+	private static boolean isRed(Node node) {
+		return node!=null && node.red;
+	}
+
+	private static void setRed(Node node, boolean red) {
+		if (node!=null) {
+			node.red=red;
+		}
+	}
+
+	private static Node parentOf(Node node) {
+		return node==null ? null : node.parent;
+	}
+
+	private static Node leftOf(Node node) {
+		return node==null ? null : node.left;
+	}
+
+	private static Node rightOf(Node node) {
+		return node==null ? null : node.right;
+	}
+
+	/**
+	 * A node of the red-black tree
+	 */
+	private static class Node {
+
+		//collision of the node, links, and color
+		private Collision data;
+		private Node left;
+		private Node right;
+		private Node parent;
+		private boolean red;
+
+		/**
+		 * Creates a black node without children
+		 *
+		 * @param Collision data
+		 * @param Node parent
+		 */
+		private Node(Collision data, Node parent) {
+			this.data=data;
+			this.parent=parent;
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class is responsible for storing collisions records for concurrent use. Instead of a
+ * single AVL tree, it holds one CollisionsData tree (a shard) per zip code in an array indexed
+ * by the zip code itself. Every shard has its own read/write lock, so queries for different
+ * zip codes never wait for each other and an add or remove only locks the shard of its zip code.
+ *
+ * @author Nanako Chung
+ */
+public class ShardedCollisionsData {
+
+	//shards indexed by zip code (created when the first collision for the zip code is added)
+	private final AtomicReferenceArray<Shard> shards;
+
+	/**
+	 * This is a default constructor that creates an empty index.
+	 */
+	public ShardedCollisionsData() {
+		this.shards=new AtomicReferenceArray<Shard>(ZipCodes.COUNT);
+	}
+
+	/**
+	 * Adds the given Collision object to the shard of its zip code. If item is null, nothing changes.
+	 *
+	 * @param item Collision object to be added
+	 */
+	public void add(Collision item) {
+
+		//if item is empty, return nothing
+		if (item==null) {
+			return;
+		}
+
+		Shard shard=getOrCreateShard(item.getZipCode());
+		shard.lock.writeLock().lock();
+		try {
+			shard.collisions.add(item);
+		} finally {
+			shard.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the given Collision object from the shard of its zip code.
+	 *
+	 * @param target Collision object to be removed
+	 * @return true if the Collision object was found and removed
+	 */
+	public boolean remove(Collision target) {
+
+		//nothing changes
+		if (target==null) {
+			return false;
+		}
+
+		Shard shard=shards.get(target.getZipCode());
+		if (shard==null) {
+			return false;
+		}
+		shard.lock.writeLock().lock();
+		try {
+			return shard.collisions.remove(target);
+		} finally {
+			shard.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Determines the number of Collision objects stored in all shards.
+	 *
+	 * @return number of Collision objects
+	 */
+	public int size() {
+		int size=0;
+		for (int i=0; i<ZipCodes.COUNT; i++) {
+			Shard shard=shards.get(i);
+			if (shard!=null) {
+				shard.lock.readLock().lock();
+				try {
+					size+=shard.collisions.size();
+				} finally {
+					shard.lock.readLock().unlock();
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * This method is responsible for properly displaying the report of collisions (in the same
+	 * format as CollisionsData.getReport)
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return formatted String of report
+	 */
+	public String getReport(String zip, Date dateBegin, Date dateEnd) {
+		return getCollisionReport(zip, dateBegin, dateEnd).toString();
+	}
+
+	/**
+	 * Sums the number of collisions and the killed/injured counts for a zip code and date range
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return report with the totals
+	 */
+	public CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		//no collisions were ever added for the zip code (or it is not five digits)
+		int zipCode=CollisionsData.queryZip(zip);
+		Shard shard=zipCode<0 ? null : shards.get(zipCode);
+		if (shard==null) {
+			return new CollisionReport(zip, dateBegin, dateEnd);
+		}
+
+		shard.lock.readLock().lock();
+		try {
+			return shard.collisions.getCollisionReport(zip, dateBegin, dateEnd);
+		} finally {
+			shard.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds all Collision objects with the given zip code and a date within the given range
+	 *
+	 * @param String zip code
+	 * @param Date start date
+	 * @param Date end date
+	 * @return ArrayList of the Collision objects in ascending order
+	 */
+	public ArrayList<Collision> getCollisions(String zip, Date dateBegin, Date dateEnd) {
+		int zipCode=CollisionsData.queryZip(zip);
+		Shard shard=zipCode<0 ? null : shards.get(zipCode);
+		if (shard==null) {
+			return new ArrayList<Collision>();
+		}
+
+		shard.lock.readLock().lock();
+		try {
+			return shard.collisions.getCollisions(zip, dateBegin, dateEnd);
+		} finally {
+			shard.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the shard of a zip code, creating it if it does not exist yet (if two threads
+	 * create it at the same time, only one of the shards is kept)
+	 *
+	 * @param int zip code
+	 * @return shard of the zip code
+	 */
+	private Shard getOrCreateShard(int zip) {
+		Shard shard=shards.get(zip);
+		if (shard==null) {
+			shards.compareAndSet(zip, null, new Shard());
+			shard=shards.get(zip);
+		}
+		return shard;
+	}
+
+	/**
+	 * The AVL tree of a single zip code together with the lock that guards it.
+	 */
+	private static class Shard {
+		private final CollisionsData collisions=new CollisionsData();
+		private final ReentrantReadWriteLock lock=new ReentrantReadWriteLock();
+	}
+}
@@ -0,0 +1,196 @@
+package project5;
+
+//imports proper packages needed
+import java.util.*;
+
+/**
+ * This class is a CollisionIndex in the form of a sorted array of collisions with a parallel
+ * array of their sort keys. Searches are binary searches, and a report scans a contiguous run of
+ * the key array, which is the most compact and cache-friendly layout of all indexes. Adding or
+ * removing a single collision shifts the rest of the arrays (O(n)), so this index is meant for
+ * data that is loaded in batches (addAll sorts the batch and merges it in O(n + m log m)).
+ *
+ * @author Nanako Chung
+ */
+public class SortedArrayCollisionIndex implements CollisionIndex {
+
+	//initial capacity of the arrays
+	private static final int CAPACITY=16;
+
+	//collisions in ascending order and their sort keys (the first size elements are used)
+	private Collision[] items;
+	private long[] keys;
+	private int size;
+
+	/**
+	 * This is a default constructor that creates an empty index.
+	 */
+	public SortedArrayCollisionIndex() {
+		this.items=new Collision[CAPACITY];
+		this.keys=new long[CAPACITY];
+		this.size=0;
+	}
+
+	@Override
+	public synchronized void add(Collision item) {
+		if (item==null) {
+			return;
+		}
+		if (size==items.length) {
+			grow(size+1);
+		}
+
+		//equal collisions go after the ones that are already there
+		int pos=upperBound(item);
+		System.arraycopy(items, pos, items, pos+1, size-pos);
+		System.arraycopy(keys, pos, keys, pos+1, size-pos);
+		items[pos]=item;
+		keys[pos]=item.getSortKey();
+		size++;
+	}
+
+	@Override
+	public synchronized void addAll(Iterable<Collision> items) {
+		ArrayList<Collision> batch=new ArrayList<Collision>();
+		for (Collision item : items) {
+			if (item!=null) {
+				batch.add(item);
+			}
+		}
+		Collision[] sorted=batch.toArray(new Collision[batch.size()]);
+		Arrays.sort(sorted);
+		if (size+sorted.length>this.items.length) {
+			grow(size+sorted.length);
+		}
+
+		//merges from the back, so that every collision is moved only once
+		int i=size-1;
+		int j=sorted.length-1;
+		for (int k=size+sorted.length-1; j>=0; k--) {
+			if (i>=0 && this.items[i].compareTo(sorted[j])>0) {
+				this.items[k]=this.items[i];
+				keys[k]=keys[i];
+				i--;
+			} else {
+				this.items[k]=sorted[j];
+				keys[k]=sorted[j].getSortKey();
+				j--;
+			}
+		}
+		size+=sorted.length;
+	}
+
+	@Override
+	public synchronized boolean remove(Collision target) {
+		if (target==null) {
+			return false;
+		}
+		int pos=lowerBound(target);
+		if (pos==size || items[pos].compareTo(target)!=0) {
+			return false;
+		}
+		size--;
+		System.arraycopy(items, pos+1, items, pos, size-pos);
+		System.arraycopy(keys, pos+1, keys, pos, size-pos);
+		items[size]=null;
+		return true;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized CollisionReport getCollisionReport(String zip, Date dateBegin, Date dateEnd) {
+		CollisionReport report=new CollisionReport(zip, dateBegin, dateEnd);
+		int zipCode=CollisionsData.queryZip(zip);
+		if (zipCode<0) {
+			return report;
+		}
+		long begin=Collision.sortKey(zipCode, dateBegin);
+		long end=Collision.sortKey(zipCode, dateEnd);
+		for (int i=BPlusTreeCollisionIndex.lowerBound(keys, size, begin); i<size && keys[i]<=end; i++) {
+			report.add(items[i]);
+		}
+		return report;
+	}
+
+	/**
+	 * Returns an iterator over the collisions in ascending order. The index should not be
+	 * changed while it is being iterated over.
+	 *
+	 * @return Iterator of Collision objects
+	 */
+	@Override
+	public Iterator<Collision> iterator() {
+		return new Iterator<Collision>() {
+			private int next=0;
+
+			@Override
+			public boolean hasNext() {
+				return next<size;
+			}
+
+			@Override
+			public Collision next() {
+				if (next>=size) {
+					throw new NoSuchElementException();
+				}
+				return items[next++];
+			}
+		};
+	}
+
+	/**
+	 * Makes the arrays large enough for the given number of collisions (at least 1.5 times
+	 * their current length)
+	 *
+	 * @param int number of collisions
+	 */
+	private void grow(int capacity) {
+		int length=Math.max(capacity, items.length+(items.length>>1));
+		items=Arrays.copyOf(items, length);
+		keys=Arrays.copyOf(keys, length);
+	}
+
+	/**
+	 * Finds the index of the first collision that is not less than item
+	 *
+	 * @param Collision item
+	 * @return index between 0 and size
+	 */
+	private int lowerBound(Collision item) {
+		int low=0;
+		int high=size;
+		while (low<high) {
+			int mid=(low+high)>>>1;
+			if (items[mid].compareTo(item)<0) {
+				low=mid+1;
+			} else {
+				high=mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the index of the first collision that is greater than item
+	 *
+	 * @param Collision item
+	 * @return index between 0 and size
+	 */
+	private int upperBound(Collision item) {
+		int low=0;
+		int high=size;
+		while (low<high) {
+			int mid=(low+high)>>>1;
+			if (items[mid].compareTo(item)<=0) {
+				low=mid+1;
+			} else {
+				high=mid;
+			}
+		}
+		return low;
+	}
+}
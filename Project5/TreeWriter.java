@@ -0,0 +1,69 @@
+package project5;
+
+//imports proper packages needed
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is responsible for writing the lines of a tree-like dump of a tree (see
+ * BST_Recursive.toStringTreeFormat and CollisionsData.toStringTreeFormat) to an Appendable. A line
+ * is a newline, three spaces for every level above the parent, "|--" (except for the root), and
+ * the item. The indentation is kept in a single buffer that only grows with the deepest level,
+ * so writing a line does not create any String besides the one of the item.
+ *
+ * @author Nanako Chung
+ */
+class TreeWriter {
+
+	//size of the buffers used to write to a channel
+	private static final int BUFFER=1<<16;
+
+	//destination of the dump
+	private final Appendable out;
+
+	//a newline followed by three spaces for every level written so far
+	private final StringBuilder indent;
+
+	/**
+	 * This constructor creates a writer that appends the lines to the given destination
+	 *
+	 * @param Appendable destination (for example a StringBuilder or a Writer)
+	 */
+	TreeWriter(Appendable out) {
+		this.out=out;
+		this.indent=new StringBuilder("\n");
+	}
+
+	/**
+	 * Writes the line of an item
+	 *
+	 * @param int level (depth) of the item in the tree
+	 * @param Object item, or null for an empty subtree (written as "null")
+	 * @throws IOException if the destination cannot be written
+	 */
+	void write(int level, Object item) throws IOException {
+		if (level>0) {
+			int length=1+3*(level-1);
+			while (indent.length()<length) {
+				indent.append("   ");
+			}
+			out.append(indent, 0, length).append("|--");
+		} else {
+			out.append('\n');
+		}
+		out.append(String.valueOf(item));
+	}
+
+	/**
+	 * Creates a buffered UTF-8 Writer on a channel. The Writer has to be flushed (not closed, as
+	 * that would close the channel) once everything was written.
+	 *
+	 * @param WritableByteChannel channel
+	 * @return Writer that writes to the channel
+	 */
+	static Writer open(WritableByteChannel channel) {
+		return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER), BUFFER);
+	}
+}
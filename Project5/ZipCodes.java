@@ -0,0 +1,69 @@
+package project5;
+
+/**
+ * This class is responsible for turning five digit zip codes into compact int codes and back.
+ * The code of a zip code is its numeric value, so codes sort in the same order as the zip code
+ * Strings, and every zip code String is created only once and shared by all collisions.
+ *
+ * @author Nanako Chung
+ */
+public class ZipCodes {
+
+	//number of possible five digit zip codes
+	static final int COUNT=100000;
+
+	//shared String of every zip code that was used (a String may be created twice if two threads
+	//ask for the same new zip code at once, which is harmless because Strings are immutable)
+	private static final String[] NAMES=new String[COUNT];
+
+	/**
+	 * This class only has static methods
+	 */
+	private ZipCodes() {
+	}
+
+	/**
+	 * Converts a zip code into its int code
+	 *
+	 * @param String zip code
+	 * @return zip code as an int
+	 * @throws IllegalArgumentException if the zip code is not five digits
+	 */
+	public static int code(String zip) throws IllegalArgumentException {
+		if (zip==null || zip.length()!=5) {
+			throw new IllegalArgumentException("invalid zip code "+zip);
+		}
+		int code=0;
+		for (int i=0; i<5; i++) {
+			char c=zip.charAt(i);
+			if (c<'0' || c>'9') {
+				throw new IllegalArgumentException("invalid zip code "+zip);
+			}
+			code=code*10+(c-'0');
+		}
+		return code;
+	}
+
+	/**
+	 * Returns the shared String of a zip code
+	 *
+	 * @param int code of the zip code
+	 * @return zip code as a five digit String
+	 * @throws IllegalArgumentException if the code is not between 0 and 99999
+	 */
+	public static String name(int code) throws IllegalArgumentException {
+		if (code<0 || code>=COUNT) {
+			throw new IllegalArgumentException("invalid zip code "+code);
+		}
+		String name=NAMES[code];
+		if (name==null) {
+			char[] digits=new char[5];
+			for (int i=4, value=code; i>=0; i--, value/=10) {
+				digits[i]=(char) ('0'+value%10);
+			}
+			name=new String(digits);
+			NAMES[code]=name;
+		}
+		return name;
+	}
+}